@@ -38,12 +38,15 @@ import com.badlogic.gdx.utils.viewport.Viewport;
 import de.fgerbig.spacepeng.assets.MusicKey;
 import de.fgerbig.spacepeng.global.Assets;
 import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.render.StaticLayer;
 import de.fgerbig.spacepeng.screens.SplashScreen;
 import de.fgerbig.spacepeng.screens.TransitionScreen;
 import de.fgerbig.spacepeng.services.MusicManager;
 import de.fgerbig.spacepeng.services.PreferencesManager;
 import de.fgerbig.spacepeng.services.ProfileManager;
 import de.fgerbig.spacepeng.services.SoundManager;
+import de.fgerbig.spacepeng.services.SpriteRegistry;
+import de.fgerbig.spacepeng.systems.CollisionSystem;
 import de.fgerbig.spacepeng.tween.CellTween;
 import de.fgerbig.spacepeng.tween.SpriteTween;
 
@@ -55,16 +58,32 @@ public class SpacePeng extends Game {
     public static final ProfileManager profileManager = new ProfileManager();
     public static final MusicManager musicManager = new MusicManager();
     public static final SoundManager soundManager = new SoundManager();
+    public static final SpriteRegistry spriteRegistry = new SpriteRegistry();
 
     public static final TweenManager tweenManager = new TweenManager();
 
     public static SpacePeng currentGame = null;
 
+    // the thread calling create() and render()
+    private static Thread renderThread;
+
     public static void glClear() {
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
     }
 
+    /**
+     * Runs the runnable right away on the render thread, else posts it to run there before the next frame.
+     * Only the world on the simulation thread needs to post.
+     */
+    public static void runOnRenderThread(Runnable runnable) {
+        if (Thread.currentThread() == renderThread) {
+            runnable.run();
+        } else {
+            Gdx.app.postRunnable(runnable);
+        }
+    }
+
     // display
     private OrthographicCamera camera;
     private Viewport viewport;
@@ -79,10 +98,13 @@ public class SpacePeng extends Game {
     private BitmapFont largeFont;
     private TextureAtlas atlas;
     private TextureRegion background;
+    // the menu background, uploaded once and shared by all menu screens
+    private final StaticLayer backgroundLayer = new StaticLayer();
 
     @Override
     public void create() {
         currentGame = this;
+        renderThread = Thread.currentThread();
         Gdx.app.log(Const.NAME, "Creating game on " + Gdx.app.getType());
 
         profileManager.retrieveProfile();
@@ -144,6 +166,9 @@ public class SpacePeng extends Game {
         largeFont = assetManager.get(Assets.FONT_LARGE);
         atlas = assetManager.get(Assets.ATLAS);
         background = atlas.findRegion("background");
+        backgroundLayer.remove(0);
+        backgroundLayer.add(0, background, 0, 0, Const.WIDTH, Const.HEIGHT);
+        spriteRegistry.load(atlas);
 
         for (MusicKey key : MusicKey.values()) {
             Music music = assetManager.get(key.toString());
@@ -203,6 +228,8 @@ public class SpacePeng extends Game {
         super.dispose();
         Gdx.app.log(Const.NAME, "Disposing game");
 
+        backgroundLayer.dispose();
+
         // dispose services
         if (assetManager != null) {
             assetManager.dispose();
@@ -214,6 +241,9 @@ public class SpacePeng extends Game {
             soundManager.dispose();
         }
 
+        // stop the collision detection threads
+        CollisionSystem.shutdownWorkers();
+
         System.exit(0);
     }
 
@@ -253,6 +283,10 @@ public class SpacePeng extends Game {
         return atlas;
     }
 
+    public StaticLayer getBackgroundLayer() {
+        return backgroundLayer;
+    }
+
     public TextureRegion getBackground() {
         return background;
     }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * The bounds of all collidable entities of a frame, stored as parallel primitive arrays.
+ * <p/>
+ * Besides the shape (a rectangle given by half extents, a circle by radius) every entry
+ * holds the axis aligned bounding box around the movement of the last step, used by the broadphases.
+ */
+public class Boxes {
+    private static final int INITIAL_CAPACITY = 64;
+
+    public int size;
+
+    public int[] ids = new int[INITIAL_CAPACITY];
+    public int[] categories = new int[INITIAL_CAPACITY];
+    public int[] masks = new int[INITIAL_CAPACITY];
+
+    // shape
+    public float[] x = new float[INITIAL_CAPACITY];
+    public float[] y = new float[INITIAL_CAPACITY];
+    public float[] previousX = new float[INITIAL_CAPACITY];
+    public float[] previousY = new float[INITIAL_CAPACITY];
+    public float[] halfWidth = new float[INITIAL_CAPACITY];
+    public float[] halfHeight = new float[INITIAL_CAPACITY];
+    public float[] radius = new float[INITIAL_CAPACITY];
+
+    // bounding box
+    public float[] minX = new float[INITIAL_CAPACITY];
+    public float[] minY = new float[INITIAL_CAPACITY];
+    public float[] maxX = new float[INITIAL_CAPACITY];
+    public float[] maxY = new float[INITIAL_CAPACITY];
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int addRectangle(int id, int category, int mask, float x, float y, float previousX, float previousY, float halfWidth, float halfHeight) {
+        return add(id, category, mask, x, y, previousX, previousY, halfWidth, halfHeight, 0);
+    }
+
+    public int addCircle(int id, int category, int mask, float x, float y, float previousX, float previousY, float radius) {
+        return add(id, category, mask, x, y, previousX, previousY, 0, 0, radius);
+    }
+
+    /**
+     * Adds an entry, x and y being the center of the shape. Entities that did not move pass
+     * their current position as previous position.
+     *
+     * @return index of the new entry
+     */
+    private int add(int id, int category, int mask, float x, float y, float previousX, float previousY,
+                    float halfWidth, float halfHeight, float radius) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+
+        ids[size] = id;
+        categories[size] = category;
+        masks[size] = mask;
+
+        this.x[size] = x;
+        this.y[size] = y;
+        this.previousX[size] = previousX;
+        this.previousY[size] = previousY;
+        this.halfWidth[size] = halfWidth;
+        this.halfHeight[size] = halfHeight;
+        this.radius[size] = radius;
+
+        float extentX = halfWidth + radius;
+        float extentY = halfHeight + radius;
+        minX[size] = Math.min(x, previousX) - extentX;
+        minY[size] = Math.min(y, previousY) - extentY;
+        maxX[size] = Math.max(x, previousX) + extentX;
+        maxY[size] = Math.max(y, previousY) + extentY;
+
+        return size++;
+    }
+
+    /**
+     * Whether box a wants to collide with box b or the other way round.
+     */
+    public boolean interacts(int a, int b) {
+        return (masks[a] & categories[b]) != 0 || (masks[b] & categories[a]) != 0;
+    }
+
+    private void grow(int capacity) {
+        ids = copyOf(ids, capacity);
+        categories = copyOf(categories, capacity);
+        masks = copyOf(masks, capacity);
+        x = copyOf(x, capacity);
+        y = copyOf(y, capacity);
+        previousX = copyOf(previousX, capacity);
+        previousY = copyOf(previousY, capacity);
+        halfWidth = copyOf(halfWidth, capacity);
+        halfHeight = copyOf(halfHeight, capacity);
+        radius = copyOf(radius, capacity);
+        minX = copyOf(minX, capacity);
+        minY = copyOf(minY, capacity);
+        maxX = copyOf(maxX, capacity);
+        maxY = copyOf(maxY, capacity);
+    }
+
+    private static int[] copyOf(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static float[] copyOf(float[] array, int capacity) {
+        float[] copy = new float[capacity];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Finds the pairs of boxes that may collide, to keep the expensive
+ * narrowphase checks to a minimum.
+ */
+public interface Broadphase {
+
+    /**
+     * Reports every candidate pair exactly once, the order of a and b is undefined.
+     */
+    void findPairs(Boxes boxes, PairHandler handler);
+
+    interface PairHandler {
+        void handlePair(int a, int b);
+    }
+}
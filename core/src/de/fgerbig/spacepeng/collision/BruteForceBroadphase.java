@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Reports every pair of interacting boxes, O(n^2). Kept as reference for the other broadphases.
+ */
+public class BruteForceBroadphase implements PartitionedBroadphase {
+
+    @Override
+    public void findPairs(Boxes boxes, PairHandler handler) {
+        findPairs(boxes, 0, 0, boxes.size, handler);
+    }
+
+    @Override
+    public void prepare(Boxes boxes, int partitions) {
+        // nothing to build
+    }
+
+    @Override
+    public void findPairs(Boxes boxes, int partition, int from, int to, PairHandler handler) {
+        for (int a = from; to > a; a++) {
+            for (int b = a + 1; boxes.size > b; b++) {
+                if (boxes.interacts(a, b)) {
+                    handler.handlePair(a, b);
+                }
+            }
+        }
+    }
+}
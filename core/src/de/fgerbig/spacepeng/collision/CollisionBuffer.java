@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Collisions found by the detection phase, stored as (entity id a, entity id b, rule id)
+ * records in a flat int array, to be resolved afterwards in one batch.
+ */
+public class CollisionBuffer {
+    private static final int RECORD_SIZE = 3;
+
+    private int[] records;
+    private int[] scratch = new int[0];
+    private int size;
+
+    public CollisionBuffer(int capacity) {
+        records = new int[capacity * RECORD_SIZE];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int entityIdA, int entityIdB, int ruleId) {
+        int offset = size * RECORD_SIZE;
+        if (offset + RECORD_SIZE > records.length) {
+            int[] newRecords = new int[records.length * 2];
+            System.arraycopy(records, 0, newRecords, 0, records.length);
+            records = newRecords;
+        }
+        records[offset] = entityIdA;
+        records[offset + 1] = entityIdB;
+        records[offset + 2] = ruleId;
+        size++;
+    }
+
+    public int getEntityIdA(int index) {
+        return records[index * RECORD_SIZE];
+    }
+
+    public int getEntityIdB(int index) {
+        return records[index * RECORD_SIZE + 1];
+    }
+
+    public int getRuleId(int index) {
+        return records[index * RECORD_SIZE + 2];
+    }
+
+    public void addAll(CollisionBuffer other) {
+        for (int i = 0; other.size > i; i++) {
+            add(other.getEntityIdA(i), other.getEntityIdB(i), other.getRuleId(i));
+        }
+    }
+
+    /**
+     * Sorts the records by entity ids, so resolution happens in the same order
+     * no matter in which order the collisions were found.
+     * <p/>
+     * Bottom-up merge sort, alternating between the records and a scratch array kept for the next frame.
+     */
+    public void sort() {
+        if (scratch.length < records.length) {
+            scratch = new int[records.length];
+        }
+
+        int[] from = records;
+        int[] to = scratch;
+        for (int width = 1; size > width; width *= 2) {
+            for (int left = 0; size > left; left += 2 * width) {
+                int middle = Math.min(left + width, size);
+                int right = Math.min(left + 2 * width, size);
+                merge(from, to, left, middle, right);
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+
+        if (from != records) {
+            // the sorted records ended up in the scratch array
+            scratch = records;
+            records = from;
+        }
+    }
+
+    private static void merge(int[] from, int[] to, int left, int middle, int right) {
+        int i = left, j = middle;
+        for (int k = left; right > k; k++) {
+            int source;
+            if (i < middle && (j >= right || compare(from[i * RECORD_SIZE], from[i * RECORD_SIZE + 1], from[j * RECORD_SIZE], from[j * RECORD_SIZE + 1]) <= 0)) {
+                source = i++;
+            } else {
+                source = j++;
+            }
+            System.arraycopy(from, source * RECORD_SIZE, to, k * RECORD_SIZE, RECORD_SIZE);
+        }
+    }
+
+    private static int compare(int a1, int b1, int a2, int b2) {
+        if (a1 != a2) {
+            return a1 < a2 ? -1 : 1;
+        }
+        return b1 < b2 ? -1 : (b1 == b2 ? 0 : 1);
+    }
+}
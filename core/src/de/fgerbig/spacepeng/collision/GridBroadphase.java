@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Reports interacting boxes sharing at least one cell of a uniform grid.
+ */
+public class GridBroadphase implements PartitionedBroadphase {
+    private final SpatialGrid grid;
+    private SpatialGrid.Query[] queries = new SpatialGrid.Query[0];
+
+    public GridBroadphase(float width, float height, float cellSize) {
+        grid = new SpatialGrid(width, height, cellSize);
+    }
+
+    @Override
+    public void findPairs(Boxes boxes, PairHandler handler) {
+        prepare(boxes, 1);
+        findPairs(boxes, 0, 0, boxes.size, handler);
+    }
+
+    @Override
+    public void prepare(Boxes boxes, int partitions) {
+        if (queries.length < partitions) {
+            SpatialGrid.Query[] newQueries = new SpatialGrid.Query[partitions];
+            System.arraycopy(queries, 0, newQueries, 0, queries.length);
+            for (int i = queries.length; partitions > i; i++) {
+                newQueries[i] = new SpatialGrid.Query();
+            }
+            queries = newQueries;
+        }
+
+        grid.clear();
+        for (int i = 0; boxes.size > i; i++) {
+            grid.insert(i, boxes.minX[i], boxes.minY[i], boxes.maxX[i], boxes.maxY[i]);
+        }
+    }
+
+    @Override
+    public void findPairs(Boxes boxes, int partition, int from, int to, PairHandler handler) {
+        SpatialGrid.Query query = queries[partition];
+        for (int a = from; to > a; a++) {
+            int candidates = grid.query(boxes.minX[a], boxes.minY[a], boxes.maxX[a], boxes.maxY[a], query);
+            for (int c = 0; candidates > c; c++) {
+                int b = query.getResult(c);
+                // visit every pair only once
+                if (b > a && boxes.interacts(a, b)) {
+                    handler.handlePair(a, b);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Exact collision test of two entries of {@link Boxes}.
+ * <p/>
+ * Works on the primitive data only, so it may run on several threads at once.
+ */
+public class Narrowphase {
+
+    private Narrowphase() {
+    }
+
+    public static boolean collides(Boxes boxes, int a, int b) {
+        float dx = boxes.x[a] - boxes.x[b];
+        float dy = boxes.y[a] - boxes.y[b];
+
+        boolean movedA = boxes.previousX[a] != boxes.x[a] || boxes.previousY[a] != boxes.y[a];
+        boolean movedB = boxes.previousX[b] != boxes.x[b] || boxes.previousY[b] != boxes.y[b];
+
+        if (!movedA && !movedB) {
+            return overlaps(boxes, a, b, dx, dy);
+        }
+
+        // movement of a relative to b during the last step, tested against the Minkowski sum of both shapes
+        float previousDx = boxes.previousX[a] - boxes.previousX[b];
+        float previousDy = boxes.previousY[a] - boxes.previousY[b];
+        return Overlap.segmentRoundedRectangle(previousDx, previousDy, dx, dy,
+                boxes.halfWidth[a] + boxes.halfWidth[b], boxes.halfHeight[a] + boxes.halfHeight[b],
+                boxes.radius[a] + boxes.radius[b]);
+    }
+
+    private static boolean overlaps(Boxes boxes, int a, int b, float dx, float dy) {
+        boolean circleA = boxes.radius[a] > 0;
+        boolean circleB = boxes.radius[b] > 0;
+
+        if (circleA && circleB) {
+            return Overlap.circleCircle(dx, dy, boxes.radius[a], 0, 0, boxes.radius[b]);
+        } else if (circleA) {
+            return Overlap.circleRectangle(dx, dy, boxes.radius[a], 0, 0, boxes.halfWidth[b], boxes.halfHeight[b]);
+        } else if (circleB) {
+            return Overlap.circleRectangle(0, 0, boxes.radius[b], dx, dy, boxes.halfWidth[a], boxes.halfHeight[a]);
+        }
+        return Overlap.rectangleRectangle(dx, dy, boxes.halfWidth[a], boxes.halfHeight[a], 0, 0, boxes.halfWidth[b], boxes.halfHeight[b]);
+    }
+}
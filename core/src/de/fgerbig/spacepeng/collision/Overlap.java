@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Allocation free overlap tests working on plain floats.
+ * <p/>
+ * Circles are given by center and radius, rectangles by center and half extents,
+ * like the bounds components are placed around an entity's position.
+ * Touching shapes do not overlap, same as in {@link com.badlogic.gdx.math.Intersector}.
+ * <p/>
+ * The segment tests are used for swept collisions, see {@link #segmentRoundedRectangle}.
+ */
+public class Overlap {
+    private static final float EPSILON = 0.000001f;
+
+    private Overlap() {
+    }
+
+    public static boolean circleCircle(float x1, float y1, float r1, float x2, float y2, float r2) {
+        float dx = x1 - x2;
+        float dy = y1 - y2;
+        float r = r1 + r2;
+        return dx * dx + dy * dy < r * r;
+    }
+
+    public static boolean circleRectangle(float cx, float cy, float r, float rx, float ry, float halfWidth, float halfHeight) {
+        // closest point of the rectangle to the circle center
+        float closestX = cx < rx - halfWidth ? rx - halfWidth : (cx > rx + halfWidth ? rx + halfWidth : cx);
+        float closestY = cy < ry - halfHeight ? ry - halfHeight : (cy > ry + halfHeight ? ry + halfHeight : cy);
+
+        float dx = cx - closestX;
+        float dy = cy - closestY;
+        return dx * dx + dy * dy < r * r;
+    }
+
+    public static boolean rectangleRectangle(float x1, float y1, float halfWidth1, float halfHeight1,
+                                             float x2, float y2, float halfWidth2, float halfHeight2) {
+        return Math.abs(x1 - x2) < halfWidth1 + halfWidth2 && Math.abs(y1 - y2) < halfHeight1 + halfHeight2;
+    }
+
+    public static boolean segmentCircle(float x0, float y0, float x1, float y1, float cx, float cy, float r) {
+        float dx = x1 - x0;
+        float dy = y1 - y0;
+        float lengthSquared = dx * dx + dy * dy;
+
+        // closest point of the segment to the circle center
+        float t = 0;
+        if (lengthSquared > EPSILON) {
+            t = ((cx - x0) * dx + (cy - y0) * dy) / lengthSquared;
+            t = t < 0 ? 0 : (t > 1 ? 1 : t);
+        }
+
+        float ex = x0 + t * dx - cx;
+        float ey = y0 + t * dy - cy;
+        return ex * ex + ey * ey < r * r;
+    }
+
+    public static boolean segmentRectangle(float x0, float y0, float x1, float y1, float rx, float ry, float halfWidth, float halfHeight) {
+        float tMin = 0;
+        float tMax = 1;
+
+        // slab test, x axis
+        float dx = x1 - x0;
+        if (Math.abs(dx) < EPSILON) {
+            if (Math.abs(x0 - rx) >= halfWidth) {
+                return false;
+            }
+        } else {
+            float t1 = (rx - halfWidth - x0) / dx;
+            float t2 = (rx + halfWidth - x0) / dx;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin >= tMax) {
+                return false;
+            }
+        }
+
+        // slab test, y axis
+        float dy = y1 - y0;
+        if (Math.abs(dy) < EPSILON) {
+            if (Math.abs(y0 - ry) >= halfHeight) {
+                return false;
+            }
+        } else {
+            float t1 = (ry - halfHeight - y0) / dy;
+            float t2 = (ry + halfHeight - y0) / dy;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+            if (tMin >= tMax) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Tests a segment against a rectangle with rounded corners centered at the origin.
+     * <p/>
+     * A shape sweeping along a segment hits another shape if the segment of the relative movement
+     * hits their Minkowski sum. For any two of our circles and rectangles that sum is a rounded
+     * rectangle: core half extents and corner radius are simply added up.
+     */
+    public static boolean segmentRoundedRectangle(float x0, float y0, float x1, float y1, float halfWidth, float halfHeight, float r) {
+        if (r <= 0) {
+            return segmentRectangle(x0, y0, x1, y1, 0, 0, halfWidth, halfHeight);
+        }
+
+        return segmentRectangle(x0, y0, x1, y1, 0, 0, halfWidth + r, halfHeight)
+                || segmentRectangle(x0, y0, x1, y1, 0, 0, halfWidth, halfHeight + r)
+                || segmentCircle(x0, y0, x1, y1, -halfWidth, -halfHeight, r)
+                || segmentCircle(x0, y0, x1, y1, halfWidth, -halfHeight, r)
+                || segmentCircle(x0, y0, x1, y1, -halfWidth, halfHeight, r)
+                || segmentCircle(x0, y0, x1, y1, halfWidth, halfHeight, r);
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * A broadphase whose pair search can be split into independent parts running on several threads.
+ */
+public interface PartitionedBroadphase extends Broadphase {
+
+    /**
+     * Builds the search structure for the boxes. Must be called before the partitions are searched.
+     *
+     * @param partitions number of partitions searched at the same time
+     */
+    void prepare(Boxes boxes, int partitions);
+
+    /**
+     * Reports all candidate pairs (a, b) with a in [from, to). Thread safe for distinct partitions.
+     */
+    void findPairs(Boxes boxes, int partition, int from, int to, PairHandler handler);
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * A uniform grid over the playfield used as collision broadphase.
+ * <p/>
+ * Items are plain ints (e.g. indices into an entity bag) inserted with their
+ * axis aligned bounding box. Bounding boxes outside of the playfield are
+ * clamped to the border cells, so nothing is ever lost.
+ */
+public class SpatialGrid {
+    private static final int INITIAL_CELL_CAPACITY = 8;
+
+    private final float cellSize;
+    private final int columns, rows;
+
+    private final int[][] cells;
+    private final int[] cellSizes;
+
+    private int itemCapacity = 32;
+
+    public SpatialGrid(float width, float height, float cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        cells = new int[columns * rows][INITIAL_CELL_CAPACITY];
+        cellSizes = new int[columns * rows];
+    }
+
+    /**
+     * Removes all items, keeping the allocated cell storage.
+     */
+    public void clear() {
+        for (int i = 0; cellSizes.length > i; i++) {
+            cellSizes[i] = 0;
+        }
+    }
+
+    public void insert(int item, float minX, float minY, float maxX, float maxY) {
+        int c0 = column(minX);
+        int c1 = column(maxX);
+        int r0 = row(minY);
+        int r1 = row(maxY);
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                add(r * columns + c, item);
+            }
+        }
+
+        if (item >= itemCapacity) {
+            itemCapacity = Math.max(item + 1, itemCapacity * 2);
+        }
+    }
+
+    /**
+     * Collects all items sharing at least one cell with the given box into the given query object.
+     * Queries with distinct query objects may run on several threads at once.
+     *
+     * @return number of items found, retrieve them with {@link Query#getResult(int)}
+     */
+    public int query(float minX, float minY, float maxX, float maxY, Query query) {
+        int c0 = column(minX);
+        int c1 = column(maxX);
+        int r0 = row(minY);
+        int r1 = row(maxY);
+
+        query.begin(itemCapacity);
+
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                int[] items = cells[cell];
+                for (int i = 0; cellSizes[cell] > i; i++) {
+                    query.add(items[i]);
+                }
+            }
+        }
+
+        return query.size;
+    }
+
+    private int column(float x) {
+        int c = (int) (x / cellSize);
+        return c < 0 ? 0 : (c >= columns ? columns - 1 : c);
+    }
+
+    private int row(float y) {
+        int r = (int) (y / cellSize);
+        return r < 0 ? 0 : (r >= rows ? rows - 1 : r);
+    }
+
+    private void add(int cell, int item) {
+        int[] items = cells[cell];
+        int size = cellSizes[cell];
+        if (size == items.length) {
+            int[] newItems = new int[items.length * 2];
+            System.arraycopy(items, 0, newItems, 0, items.length);
+            cells[cell] = items = newItems;
+        }
+        items[size] = item;
+        cellSizes[cell] = size + 1;
+    }
+
+    /**
+     * The result of a query, free of duplicates.
+     */
+    public static class Query {
+        private int[] result = new int[32];
+        private int size;
+
+        // per item stamp of the last query it was found in
+        private int[] stamps = new int[32];
+        private int stamp;
+
+        public int getResult(int index) {
+            return result[index];
+        }
+
+        private void begin(int itemCapacity) {
+            size = 0;
+
+            if (stamps.length < itemCapacity) {
+                int[] newStamps = new int[itemCapacity];
+                System.arraycopy(stamps, 0, newStamps, 0, stamps.length);
+                stamps = newStamps;
+            }
+
+            stamp++;
+            if (stamp == Integer.MAX_VALUE) {
+                // stamps wrapped around, start over
+                for (int i = 0; stamps.length > i; i++) {
+                    stamps[i] = 0;
+                }
+                stamp = 1;
+            }
+        }
+
+        private void add(int item) {
+            // skip items already found in another cell
+            if (stamps[item] == stamp) {
+                return;
+            }
+            stamps[item] = stamp;
+
+            if (size == result.length) {
+                int[] newResult = new int[result.length * 2];
+                System.arraycopy(result, 0, newResult, 0, result.length);
+                result = newResult;
+            }
+            result[size++] = item;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+/**
+ * Sort and sweep along the x axis.
+ * <p/>
+ * The interval endpoints of all boxes are kept sorted between frames and
+ * re-sorted by insertion sort. Shots mostly move vertically and aliens stay
+ * in their rows, so the order hardly changes and sorting is close to O(n).
+ */
+public class SweepAndPruneBroadphase implements Broadphase {
+    private static final int INITIAL_CAPACITY = 128;
+
+    // sorted endpoints, entity id shifted left by one, lowest bit set for the max endpoint
+    private int[] endpoints = new int[INITIAL_CAPACITY];
+    private float[] values = new float[INITIAL_CAPACITY];
+    private int endpointCount;
+
+    // per entity id: box index in the current frame and stamps for bookkeeping
+    private int[] boxOfId = new int[INITIAL_CAPACITY];
+    private int[] presentStamps = new int[INITIAL_CAPACITY];
+    private int[] sortedStamps = new int[INITIAL_CAPACITY];
+    private int stamp;
+
+    // boxes whose x interval contains the current sweep position
+    private int[] active = new int[INITIAL_CAPACITY];
+    private int activeCount;
+
+    @Override
+    public void findPairs(Boxes boxes, PairHandler handler) {
+        stamp++;
+        mapIds(boxes);
+        updateEndpoints(boxes);
+        sortEndpoints();
+        sweep(boxes, handler);
+    }
+
+    private void mapIds(Boxes boxes) {
+        for (int i = 0; boxes.size > i; i++) {
+            int id = boxes.ids[i];
+            if (id >= boxOfId.length) {
+                growIds(id + 1);
+            }
+            boxOfId[id] = i;
+            presentStamps[id] = stamp;
+        }
+    }
+
+    private void updateEndpoints(Boxes boxes) {
+        // drop endpoints of removed entities, update the others in place (keeping their order)
+        int kept = 0;
+        for (int i = 0; endpointCount > i; i++) {
+            int endpoint = endpoints[i];
+            int id = endpoint >> 1;
+            if (presentStamps[id] != stamp) {
+                continue;
+            }
+            int box = boxOfId[id];
+            endpoints[kept] = endpoint;
+            values[kept] = (endpoint & 1) == 0 ? boxes.minX[box] : boxes.maxX[box];
+            sortedStamps[id] = stamp;
+            kept++;
+        }
+        endpointCount = kept;
+
+        // append endpoints of new entities
+        if (endpointCount + boxes.size * 2 > endpoints.length) {
+            growEndpoints(endpointCount + boxes.size * 2);
+        }
+        for (int i = 0; boxes.size > i; i++) {
+            int id = boxes.ids[i];
+            if (sortedStamps[id] == stamp) {
+                continue;
+            }
+            sortedStamps[id] = stamp;
+            endpoints[endpointCount] = id << 1;
+            values[endpointCount++] = boxes.minX[i];
+            endpoints[endpointCount] = (id << 1) | 1;
+            values[endpointCount++] = boxes.maxX[i];
+        }
+    }
+
+    private void sortEndpoints() {
+        for (int i = 1; endpointCount > i; i++) {
+            int endpoint = endpoints[i];
+            float value = values[i];
+            int j = i - 1;
+            while (j >= 0 && greater(values[j], endpoints[j], value, endpoint)) {
+                endpoints[j + 1] = endpoints[j];
+                values[j + 1] = values[j];
+                j--;
+            }
+            endpoints[j + 1] = endpoint;
+            values[j + 1] = value;
+        }
+    }
+
+    // on equal values min endpoints come first, so touching boxes are reported too
+    private static boolean greater(float value1, int endpoint1, float value2, int endpoint2) {
+        return value1 > value2 || (value1 == value2 && (endpoint1 & 1) > (endpoint2 & 1));
+    }
+
+    private void sweep(Boxes boxes, PairHandler handler) {
+        activeCount = 0;
+        if (active.length < boxes.size) {
+            active = new int[boxes.size];
+        }
+
+        for (int i = 0; endpointCount > i; i++) {
+            int endpoint = endpoints[i];
+            int box = boxOfId[endpoint >> 1];
+
+            if ((endpoint & 1) == 0) {
+                // box starts, check y overlap against all open boxes
+                for (int j = 0; activeCount > j; j++) {
+                    int other = active[j];
+                    if (boxes.minY[box] <= boxes.maxY[other] && boxes.minY[other] <= boxes.maxY[box] && boxes.interacts(box, other)) {
+                        handler.handlePair(other, box);
+                    }
+                }
+                active[activeCount++] = box;
+            } else {
+                // box ends
+                for (int j = 0; activeCount > j; j++) {
+                    if (active[j] == box) {
+                        active[j] = active[--activeCount];
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private void growIds(int minCapacity) {
+        int capacity = Math.max(minCapacity, boxOfId.length * 2);
+        boxOfId = copyOf(boxOfId, capacity);
+        presentStamps = copyOf(presentStamps, capacity);
+        sortedStamps = copyOf(sortedStamps, capacity);
+    }
+
+    private void growEndpoints(int minCapacity) {
+        int capacity = Math.max(minCapacity, endpoints.length * 2);
+        endpoints = copyOf(endpoints, capacity);
+        float[] newValues = new float[capacity];
+        System.arraycopy(values, 0, newValues, 0, values.length);
+        values = newValues;
+    }
+
+    private static int[] copyOf(int[] array, int capacity) {
+        int[] copy = new int[capacity];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
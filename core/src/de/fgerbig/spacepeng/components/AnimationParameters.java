@@ -28,6 +28,9 @@ public class AnimationParameters extends Component {
 
     public float stateTime;
 
+    // shared animation for the sprite, frame duration and play mode; looked up by the render system on first use
+    public Animation animation;
+
     public AnimationParameters() {
         stateTime = 0;
     }
@@ -19,9 +19,12 @@ package de.fgerbig.spacepeng.components;
 
 import com.artemis.Component;
 import com.artemis.annotations.PooledWeaver;
+import de.fgerbig.spacepeng.global.Groups;
 
+/**
+ * Aliens of the same attack group start attacking together.
+ */
 @PooledWeaver
-public class ExpiringEntity extends Component {
-    public float delay;
-    public Runnable onExpiry;
+public class AttackGroup extends Component {
+    public int id = Groups.NO_ATTACK_GROUP;
 }
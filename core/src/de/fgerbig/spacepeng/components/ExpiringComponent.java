@@ -20,8 +20,11 @@ package de.fgerbig.spacepeng.components;
 import com.artemis.Component;
 import com.artemis.annotations.PooledWeaver;
 
+/**
+ * A component removed again after a delay, see {@link de.fgerbig.spacepeng.systems.ExpiringComponentSystem}.
+ */
 @PooledWeaver
 public class ExpiringComponent extends Component {
+    // seconds from adding the component until it expires
     public float delay;
-    public Runnable onExpiry;
 }
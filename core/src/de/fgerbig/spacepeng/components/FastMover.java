@@ -0,0 +1,30 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.components;
+
+import com.artemis.Component;
+import com.artemis.annotations.PooledWeaver;
+
+/**
+ * Marks entities moving so fast they could pass through others within one step.
+ * Their collisions are checked along the way from the previous to the current position.
+ */
+@PooledWeaver
+public class FastMover extends Component {
+    public float previousX, previousY;
+}
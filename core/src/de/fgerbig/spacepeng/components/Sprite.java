@@ -24,14 +24,28 @@ import com.artemis.annotations.PooledWeaver;
 public class Sprite extends Component {
 
     public enum Layer {
-        BACKGROUND,
+        BACKGROUND(true),
         DEFAULT,
         EFFECTS,
         ACTORS,
         OVERLAYS;
+
+        /**
+         * Sprites of static layers are cached once when added and neither move, animate nor hide.
+         */
+        public final boolean isStatic;
+
+        Layer() {
+            this(false);
+        }
+
+        Layer(boolean isStatic) {
+            this.isStatic = isStatic;
+        }
     }
 
-    public String name;
+    // id of the texture region, see SpriteRegistry
+    public int regionId;
     public float scaleX = 1;
     public float scaleY = 1;
     public float rotation;
@@ -45,6 +45,9 @@ public class Coin extends Component {
 
     public Type type;
 
+    public Coin() {
+    }
+
     public Coin(Type type) {
         this.type = type;
     }
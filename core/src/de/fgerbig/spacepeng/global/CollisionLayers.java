@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.global;
+
+public class CollisionLayers {
+    public static final int NONE = 0;
+
+    // categories, one bit each
+    public static final int PLAYER = 1;
+    public static final int PLAYER_SHOT = 1 << 1;
+    public static final int ALIEN = 1 << 2;
+    public static final int ALIEN_SHOT = 1 << 3;
+    public static final int COIN = 1 << 4;
+
+    public static final int COUNT = 5;
+
+    // masks, the categories each category collides with
+    public static final int PLAYER_MASK = ALIEN | ALIEN_SHOT | COIN;
+    public static final int PLAYER_SHOT_MASK = ALIEN | ALIEN_SHOT;
+    public static final int ALIEN_MASK = PLAYER | PLAYER_SHOT;
+    public static final int ALIEN_SHOT_MASK = PLAYER | PLAYER_SHOT;
+    public static final int COIN_MASK = PLAYER;
+}
@@ -32,6 +32,14 @@ public class Const {
 
     public static final float POWERUP_BORDER = 50.0f;
 
+    // simulate in fixed steps, rendering interpolates between them
+    public static final boolean FIXED_TIMESTEP = true;
+    public static final float SIMULATION_STEP = 1 / 60f;
+    // steps per frame at most, the simulation slows down rather than spiralling
+    public static final int MAX_SIMULATION_STEPS = 5;
+    // desktop only: simulate on a thread of its own, rendering draws the latest snapshot
+    public static final boolean SIMULATION_THREAD = false;
+
     public static final boolean IS_OS_WINDOWS = System.getProperty("os.name").toLowerCase().startsWith("windows");
 
 }
@@ -18,11 +18,11 @@
 package de.fgerbig.spacepeng.global;
 
 public class Groups {
-    public static final String PLAYER = "player";
-    public static final String PLAYER_SHOTS = "playerShots";
     public static final String COINS = "coin";
     public static final String ALIENS = "aliens";
-    public static final String ALIEN_SHOTS = "alienShots";
 
-    public static final String ALIEN_ATTACK_GROUP = "attack";
+    // attack group of all bosses, the groups of formation aliens start at 1
+    public static final int BOSS_ATTACK_GROUP = 0;
+    // attack group id of an entity not set up as alien, e.g. while pre-warming
+    public static final int NO_ATTACK_GROUP = -1;
 }
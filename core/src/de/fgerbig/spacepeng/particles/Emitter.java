@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.particles;
+
+import com.badlogic.gdx.math.MathUtils;
+
+/**
+ * Spawns a burst of particles flying off into random directions.
+ * <p/>
+ * An emitter only holds its configuration, so a single instance per effect
+ * serves any number of simultaneous bursts.
+ */
+public class Emitter {
+    public final int regionId;
+
+    public int count = 1;
+    public float minSpeed;
+    public float maxSpeed;
+    public float lifetime = 1;
+
+    // scale at spawn time and its change per second
+    public float minScale = 1;
+    public float maxScale = 1;
+    public float growth;
+
+    public float r = 1;
+    public float g = 1;
+    public float b = 1;
+    public float alpha = 1;
+    // fade to transparent over the lifetime
+    public boolean fadeOut = true;
+
+    public Emitter(int regionId) {
+        this.regionId = regionId;
+    }
+
+    public void emit(Particles particles, float x, float y) {
+        float fade = fadeOut ? alpha / lifetime : 0;
+
+        for (int i = 0; count > i; i++) {
+            float radians = MathUtils.random(MathUtils.PI2);
+            float speed = MathUtils.random(minSpeed, maxSpeed);
+            float scale = MathUtils.random(minScale, maxScale);
+
+            particles.add(regionId, x, y, speed * MathUtils.cos(radians), speed * MathUtils.sin(radians), lifetime,
+                    alpha, fade, scale, growth, r, g, b);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.particles;
+
+/**
+ * All live particles, stored as parallel primitive arrays.
+ * <p/>
+ * Particles are unordered; removing one moves the last particle into its slot.
+ */
+public class Particles {
+    private static final int INITIAL_CAPACITY = 256;
+
+    public int size;
+
+    // sprite region, animation frames are spread over the lifetime
+    public int[] regionIds = new int[INITIAL_CAPACITY];
+
+    public float[] x = new float[INITIAL_CAPACITY];
+    public float[] y = new float[INITIAL_CAPACITY];
+    public float[] vx = new float[INITIAL_CAPACITY];
+    public float[] vy = new float[INITIAL_CAPACITY];
+
+    // remaining and total lifetime in seconds
+    public float[] life = new float[INITIAL_CAPACITY];
+    public float[] lifetime = new float[INITIAL_CAPACITY];
+    // alpha and scale and their change per second
+    public float[] alpha = new float[INITIAL_CAPACITY];
+    public float[] fade = new float[INITIAL_CAPACITY];
+    public float[] scale = new float[INITIAL_CAPACITY];
+    public float[] growth = new float[INITIAL_CAPACITY];
+
+    public float[] r = new float[INITIAL_CAPACITY];
+    public float[] g = new float[INITIAL_CAPACITY];
+    public float[] b = new float[INITIAL_CAPACITY];
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a particle, alpha and scale change linearly over its lifetime.
+     *
+     * @return index of the new particle
+     */
+    public int add(int regionId, float x, float y, float vx, float vy, float life,
+                   float alpha, float fade, float scale, float growth, float r, float g, float b) {
+        if (size == this.x.length) {
+            grow(size * 2);
+        }
+
+        this.regionIds[size] = regionId;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.vx[size] = vx;
+        this.vy[size] = vy;
+        this.life[size] = life;
+        this.lifetime[size] = life;
+        this.alpha[size] = alpha;
+        this.fade[size] = fade;
+        this.scale[size] = scale;
+        this.growth[size] = growth;
+        this.r[size] = r;
+        this.g[size] = g;
+        this.b[size] = b;
+
+        return size++;
+    }
+
+    /**
+     * Makes room for the given number of particles without growing again.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > x.length) {
+            grow(capacity);
+        }
+    }
+
+    public void remove(int index) {
+        int last = --size;
+
+        regionIds[index] = regionIds[last];
+        x[index] = x[last];
+        y[index] = y[last];
+        vx[index] = vx[last];
+        vy[index] = vy[last];
+        life[index] = life[last];
+        lifetime[index] = lifetime[last];
+        alpha[index] = alpha[last];
+        fade[index] = fade[last];
+        scale[index] = scale[last];
+        growth[index] = growth[last];
+        r[index] = r[last];
+        g[index] = g[last];
+        b[index] = b[last];
+    }
+
+    private void grow(int capacity) {
+        int[] newRegionIds = new int[capacity];
+        System.arraycopy(regionIds, 0, newRegionIds, 0, regionIds.length);
+        regionIds = newRegionIds;
+
+        x = copyOf(x, capacity);
+        y = copyOf(y, capacity);
+        vx = copyOf(vx, capacity);
+        vy = copyOf(vy, capacity);
+        life = copyOf(life, capacity);
+        lifetime = copyOf(lifetime, capacity);
+        alpha = copyOf(alpha, capacity);
+        fade = copyOf(fade, capacity);
+        scale = copyOf(scale, capacity);
+        growth = copyOf(growth, capacity);
+        r = copyOf(r, capacity);
+        g = copyOf(g, capacity);
+        b = copyOf(b, capacity);
+    }
+
+    private static float[] copyOf(float[] array, int length) {
+        float[] copy = new float[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
@@ -25,10 +25,10 @@ public class AlienBossAttackPathFunction implements PathFunction {
     public static final String id = "bossAttack";
 
     @Override
-    public Vector2 getXY(float rad) {
+    public Vector2 getXY(float rad, Vector2 out) {
         float x = MathUtils.sin(rad) * Const.WIDTH * 0.4f;
         float y = MathUtils.cos(2 * rad) * Const.HEIGHT / 3f - Const.HEIGHT / 4;
 
-        return new Vector2(x, y);
+        return out.set(x, y);
     }
 }
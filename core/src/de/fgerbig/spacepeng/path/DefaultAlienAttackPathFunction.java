@@ -25,10 +25,10 @@ public class DefaultAlienAttackPathFunction implements PathFunction {
     public static final String id = "defaultAttack";
 
     @Override
-    public Vector2 getXY(float rad) {
+    public Vector2 getXY(float rad, Vector2 out) {
         float x = MathUtils.sin(3 * rad) * Const.WIDTH / 8;
         float y = MathUtils.cos(rad) * Const.HEIGHT / 3f - Const.HEIGHT / 4;
 
-        return new Vector2(x, y);
+        return out.set(x, y);
     }
 }
@@ -24,10 +24,10 @@ public class DefaultAlienMovementPathFunction implements PathFunction {
     public static final String id = "defaultMovement";
 
     @Override
-    public Vector2 getXY(float rad) {
+    public Vector2 getXY(float rad, Vector2 out) {
         float x = MathUtils.sin(rad) * 50;
         float y = 0f;//MathUtils.cos(rad) * 25;
 
-        return new Vector2(x, y);
+        return out.set(x, y);
     }
 }
@@ -19,6 +19,14 @@ package de.fgerbig.spacepeng.path;
 
 import com.badlogic.gdx.math.Vector2;
 
+/**
+ * An offset path, periodic over [0, 2&pi;).
+ */
 public interface PathFunction {
-    Vector2 getXY(float rad);
+    /**
+     * Stores the offset at the given angle in out.
+     *
+     * @return out
+     */
+    Vector2 getXY(float rad, Vector2 out);
 }
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.path;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * A path function sampled once over [0, 2&pi;) and evaluated by interpolating between the samples,
+ * so no trigonometry is done per call.
+ */
+public class PathTable implements PathFunction {
+    private final int samples;
+    private final float samplesPerRad;
+    // one sample more than requested, the last repeats the first for interpolation
+    private final float[] xs, ys;
+
+    public PathTable(PathFunction function, int samples) {
+        this.samples = samples;
+        this.samplesPerRad = samples / MathUtils.PI2;
+        xs = new float[samples + 1];
+        ys = new float[samples + 1];
+
+        Vector2 xy = new Vector2();
+        for (int i = 0; samples > i; i++) {
+            function.getXY(i / samplesPerRad, xy);
+            xs[i] = xy.x;
+            ys[i] = xy.y;
+        }
+        xs[samples] = xs[0];
+        ys[samples] = ys[0];
+    }
+
+    @Override
+    public Vector2 getXY(float rad, Vector2 out) {
+        float position = (rad * samplesPerRad) % samples;
+        if (position < 0) {
+            position += samples;
+        }
+
+        int i = (int) position;
+        float t = position - i;
+        if (i >= samples) {
+            i = 0; // rounded up to a full period
+            t = 0;
+        }
+
+        return out.set(xs[i] + (xs[i + 1] - xs[i]) * t, ys[i] + (ys[i + 1] - ys[i]) * t);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.render;
+
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * A text ending in an int value, e.g. "FPS: 60".
+ * <p/>
+ * The glyphs are laid out into a {@link BitmapFontCache} only when the value changes.
+ * The digits are appended to a reused StringBuilder, so no String is built.
+ */
+public class IntLabel {
+    private final BitmapFont font;
+    private final BitmapFontCache cache;
+    private final StringBuilder text;
+    private final int prefixLength;
+
+    private final float x, y;
+    private final boolean centered;
+
+    private int value;
+    private boolean laidOut;
+
+    /**
+     * @param x        the left border or, if centered, the center of the text
+     * @param y        the top of the text
+     * @param centered whether the text is centered horizontally around x
+     */
+    public IntLabel(BitmapFont font, String prefix, float x, float y, boolean centered) {
+        this.font = font;
+        this.cache = new BitmapFontCache(font, font.usesIntegerPositions());
+        this.text = new StringBuilder(prefix.length() + 11);
+        this.text.append(prefix);
+        this.prefixLength = prefix.length();
+        this.x = x;
+        this.y = y;
+        this.centered = centered;
+    }
+
+    public void setValue(int value) {
+        if (laidOut && this.value == value) {
+            return;
+        }
+        this.value = value;
+        this.laidOut = true;
+
+        text.setLength(prefixLength);
+        text.append(value);
+
+        float left = centered ? x - font.getBounds(text).width / 2 : x;
+        cache.setText(text, left, y);
+    }
+
+    public void draw(Batch batch) {
+        cache.draw(batch);
+    }
+
+    /**
+     * Lays out a text that never changes.
+     */
+    public static BitmapFontCache createCache(BitmapFont font, CharSequence text, float x, float y, boolean centered) {
+        BitmapFontCache cache = new BitmapFontCache(font, font.usesIntegerPositions());
+        float left = centered ? x - font.getBounds(text).width / 2 : x;
+        cache.setText(text, left, y);
+        return cache;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.render;
+
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import de.fgerbig.spacepeng.systems.HudRenderSystem;
+
+/**
+ * Everything needed to draw one simulation tick, captured by the render systems.
+ * <p/>
+ * Sprites are stored as parallel arrays in drawing order, together with their position of the
+ * previous tick for interpolation. Once published a snapshot is only read, see {@link TripleBuffer}.
+ */
+public class RenderSnapshot {
+    private static final int INITIAL_CAPACITY = 256;
+
+    // System.nanoTime() when the tick was captured
+    public long time;
+
+    // sprites
+    public int size;
+    public TextureRegion[] regions = new TextureRegion[INITIAL_CAPACITY];
+    public float[] previousX = new float[INITIAL_CAPACITY];
+    public float[] previousY = new float[INITIAL_CAPACITY];
+    public float[] x = new float[INITIAL_CAPACITY];
+    public float[] y = new float[INITIAL_CAPACITY];
+    public float[] scaleX = new float[INITIAL_CAPACITY];
+    public float[] scaleY = new float[INITIAL_CAPACITY];
+    public float[] rotation = new float[INITIAL_CAPACITY];
+    public float[] r = new float[INITIAL_CAPACITY];
+    public float[] g = new float[INITIAL_CAPACITY];
+    public float[] b = new float[INITIAL_CAPACITY];
+    public float[] a = new float[INITIAL_CAPACITY];
+
+    // health labels
+    public int labelCount;
+    public float[] labelX = new float[16];
+    public float[] labelY = new float[16];
+    public int[] labelValues = new int[16];
+
+    // hud
+    public int lives;
+    public int score;
+    public int highScore;
+    public int level;
+    public HudRenderSystem.Overlay overlay = HudRenderSystem.Overlay.NONE;
+
+    public void clear() {
+        // drop the region references, a snapshot may sit unused for a while
+        for (int i = 0; size > i; i++) {
+            regions[i] = null;
+        }
+        size = 0;
+        labelCount = 0;
+    }
+
+    public void addSprite(TextureRegion region, float previousX, float previousY, float x, float y,
+                          float scaleX, float scaleY, float rotation, float r, float g, float b, float a) {
+        if (size == regions.length) {
+            growSprites(size * 2);
+        }
+
+        this.regions[size] = region;
+        this.previousX[size] = previousX;
+        this.previousY[size] = previousY;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.scaleX[size] = scaleX;
+        this.scaleY[size] = scaleY;
+        this.rotation[size] = rotation;
+        this.r[size] = r;
+        this.g[size] = g;
+        this.b[size] = b;
+        this.a[size] = a;
+        size++;
+    }
+
+    public void addLabel(float x, float y, int value) {
+        if (labelCount == labelValues.length) {
+            labelX = copyOf(labelX, labelCount * 2);
+            labelY = copyOf(labelY, labelCount * 2);
+            int[] newValues = new int[labelCount * 2];
+            System.arraycopy(labelValues, 0, newValues, 0, labelCount);
+            labelValues = newValues;
+        }
+
+        labelX[labelCount] = x;
+        labelY[labelCount] = y;
+        labelValues[labelCount] = value;
+        labelCount++;
+    }
+
+    private void growSprites(int capacity) {
+        TextureRegion[] newRegions = new TextureRegion[capacity];
+        System.arraycopy(regions, 0, newRegions, 0, regions.length);
+        regions = newRegions;
+
+        previousX = copyOf(previousX, capacity);
+        previousY = copyOf(previousY, capacity);
+        x = copyOf(x, capacity);
+        y = copyOf(y, capacity);
+        scaleX = copyOf(scaleX, capacity);
+        scaleY = copyOf(scaleY, capacity);
+        rotation = copyOf(rotation, capacity);
+        r = copyOf(r, capacity);
+        g = copyOf(g, capacity);
+        b = copyOf(b, capacity);
+        a = copyOf(a, capacity);
+    }
+
+    private static float[] copyOf(float[] array, int length) {
+        float[] copy = new float[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.render;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+
+/**
+ * Sprites that never move, uploaded once into a {@link SpriteCache} and drawn with a single call.
+ * <p/>
+ * Sprites may be added and removed from any thread; the cache is rebuilt on the next
+ * {@link #draw(Matrix4)} after a change, which must happen on the render thread.
+ */
+public class StaticLayer implements Disposable {
+    private final Array<Entry> entries = new Array<Entry>();
+    private boolean dirty;
+
+    // owned by the render thread
+    private final Array<Entry> cached = new Array<Entry>();
+    private SpriteCache cache;
+    private int cacheSize;
+    private int cacheId = -1;
+
+    /**
+     * Adds a sprite, centered at x, y like the sprites of the {@link de.fgerbig.spacepeng.systems.SpriteRenderSystem}.
+     *
+     * @param key identifies the sprite for {@link #remove(int)}, e.g. an entity id
+     */
+    public synchronized void add(int key, TextureRegion region, float x, float y, float scaleX, float scaleY, float rotation,
+                                 float r, float g, float b, float a) {
+        Entry entry = new Entry();
+        entry.key = key;
+        entry.region = region;
+        entry.x = x - region.getRegionWidth() / 2 * scaleX;
+        entry.y = y - region.getRegionHeight() / 2 * scaleY;
+        entry.scaleX = scaleX;
+        entry.scaleY = scaleY;
+        entry.rotation = rotation;
+        entry.r = r;
+        entry.g = g;
+        entry.b = b;
+        entry.a = a;
+        entries.add(entry);
+        dirty = true;
+    }
+
+    /**
+     * Adds a region stretched over the given rectangle.
+     */
+    public synchronized void add(int key, TextureRegion region, float x, float y, float width, float height) {
+        add(key, region, x + width / 2, y + height / 2, width / region.getRegionWidth(), height / region.getRegionHeight(),
+                0, 1, 1, 1, 1);
+    }
+
+    public synchronized void remove(int key) {
+        for (int i = entries.size - 1; i >= 0; i--) {
+            if (entries.get(i).key == key) {
+                entries.removeIndex(i);
+                dirty = true;
+            }
+        }
+    }
+
+    /**
+     * Draws all sprites, the sprite batch must not be active.
+     */
+    public void draw(Matrix4 projection) {
+        synchronized (this) {
+            if (dirty) {
+                cached.clear();
+                cached.addAll(entries);
+                dirty = false;
+                cacheId = -1;
+            }
+        }
+
+        if (cached.size == 0) {
+            return;
+        }
+        if (cacheId == -1) {
+            build();
+        }
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        cache.setProjectionMatrix(projection);
+        cache.begin();
+        cache.draw(cacheId);
+        cache.end();
+    }
+
+    private void build() {
+        if (cache == null || cacheSize < cached.size) {
+            if (cache != null) {
+                cache.dispose();
+            }
+            cacheSize = Math.max(8, cached.size * 2);
+            cache = new SpriteCache(cacheSize, false);
+        }
+
+        cache.clear();
+        cache.beginCache();
+        for (int i = 0; cached.size > i; i++) {
+            Entry e = cached.get(i);
+            cache.setColor(e.r, e.g, e.b, e.a);
+            cache.add(e.region, e.x, e.y, 0, 0, e.region.getRegionWidth(), e.region.getRegionHeight(),
+                    e.scaleX, e.scaleY, e.rotation);
+        }
+        cacheId = cache.endCache();
+    }
+
+    @Override
+    public void dispose() {
+        if (cache != null) {
+            cache.dispose();
+            cache = null;
+        }
+        cacheId = -1;
+    }
+
+    private static class Entry {
+        int key;
+        TextureRegion region;
+        float x, y, scaleX, scaleY, rotation;
+        float r, g, b, a;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.render;
+
+/**
+ * Hands objects from one producer thread to one consumer thread without either waiting for the other.
+ * <p/>
+ * The producer fills the back buffer and publishes it; the consumer takes the latest published
+ * buffer. Buffers that were never taken are simply overwritten.
+ */
+public class TripleBuffer<T> {
+    private T front;
+    private T middle;
+    private T back;
+    // whether the middle buffer holds something the consumer didn't take yet
+    private boolean fresh;
+
+    public TripleBuffer(T front, T middle, T back) {
+        this.front = front;
+        this.middle = middle;
+        this.back = back;
+    }
+
+    /**
+     * Returns the buffer to fill, producer only.
+     */
+    public T getBack() {
+        return back;
+    }
+
+    /**
+     * Makes the filled back buffer the latest one, producer only.
+     */
+    public synchronized void publish() {
+        T t = middle;
+        middle = back;
+        back = t;
+        fresh = true;
+    }
+
+    /**
+     * Returns the latest published buffer, consumer only. It stays valid until the next call.
+     */
+    public synchronized T acquire() {
+        if (fresh) {
+            T t = front;
+            front = middle;
+            middle = t;
+            fresh = false;
+        }
+        return front;
+    }
+}
@@ -47,12 +47,6 @@ public abstract class AbstractMenuScreen implements Screen {
         this.game = game;
         stage = new Stage(game.getViewport(), game.getSpriteBatch());
 
-        // background
-        Image background = new Image(game.getBackground());
-        background.setWidth(Const.WIDTH);
-        background.setHeight(Const.HEIGHT);
-        stage.addActor(background);
-
         // table
         table = new Table(game.getSkin());
         table.setFillParent(true);
@@ -107,7 +101,9 @@ public abstract class AbstractMenuScreen implements Screen {
         // update the actors
         stage.act(delta);
 
-        // draw the actors
+        // draw the cached background, then the actors
+        stage.getViewport().apply();
+        game.getBackgroundLayer().draw(stage.getCamera().combined);
         stage.draw();
     }
 
@@ -22,17 +22,23 @@ import com.artemis.Manager;
 import com.artemis.World;
 import com.artemis.managers.GroupManager;
 import com.artemis.managers.TagManager;
+import com.badlogic.gdx.Application;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.Input.Keys;
 import com.badlogic.gdx.Screen;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
 import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.assets.MusicKey;
 import de.fgerbig.spacepeng.events.EventManager;
 import de.fgerbig.spacepeng.events.EventManagerImpl;
 import de.fgerbig.spacepeng.events.reflection.EventListenerReflectionRegistrator;
 import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.render.RenderSnapshot;
+import de.fgerbig.spacepeng.render.StaticLayer;
+import de.fgerbig.spacepeng.render.TripleBuffer;
+import de.fgerbig.spacepeng.services.Archetypes;
 import de.fgerbig.spacepeng.services.EntityFactory;
 import de.fgerbig.spacepeng.systems.*;
 
@@ -49,11 +55,21 @@ public class GameScreen implements Screen {
     private HudRenderSystem hudRenderSystem;
     private BoundsRenderSystem boundsRenderSystem;
 
+    // background sprites, uploaded once and drawn before the sprite batch
+    private final StaticLayer staticLayer = new StaticLayer();
+
     private PlayerInputSystem playerInputSystem;
 
     protected DirectorSystem ds;
     protected EventManager eventManager;
 
+    // simulation time not yet processed, less than a step
+    private float accumulator;
+
+    // simulation on a thread of its own once the screen is shown, null if it always runs in render()
+    private Simulation simulation;
+    private TripleBuffer<RenderSnapshot> snapshots;
+
     public GameScreen(final SpacePeng game) {
         this.game = game;
 
@@ -63,29 +79,34 @@ public class GameScreen implements Screen {
 
         world.setManager(new GroupManager());
         world.setManager(new TagManager());
+        world.setManager(new Archetypes());
 
         ds = new DirectorSystem(eventManager);
         world.setSystem(ds);
 
-        world.setSystem(new ExpiringEntitySystem());
-        world.setSystem(new ExpiringComponentSystem());
+        world.setSystem(new IsAttackingExpirySystem());
+        world.setSystem(new ShieldExpirySystem());
+        world.setSystem(new DoubleShotExpirySystem());
         world.setSystem(new ColorAnimationSystem());
         world.setSystem(new ScaleAnimationSystem());
+        world.setSystem(new ParticleSystem());
 
         playerInputSystem = new PlayerInputSystem(eventManager, game.getCamera(), game.getViewport());
         world.setSystem(playerInputSystem);
 
+        world.setSystem(new AttackGroupSystem(), true);
         world.setSystem(new AlienBehaviourSystem());
         world.setSystem(new CoinSpawningSystem());
 
         world.setSystem(new VelocityMovementSystem());
+        world.setSystem(new FormationMovementSystem());
         world.setSystem(new PathMovementSystem());
         world.setSystem(new StayOnScreenSystem(game.getAtlas()));
         world.setSystem(new OffScreenRemoveSystem());
 
         world.setSystem(new CollisionSystem(eventManager));
 
-        spriteRenderSystem = world.setSystem(new SpriteRenderSystem(game.getCamera(), game.getSpriteBatch(), game.getAtlas(), game.getFont()), true);
+        spriteRenderSystem = world.setSystem(new SpriteRenderSystem(game.getCamera(), game.getSpriteBatch(), game.getAtlas(), game.getFont(), staticLayer), true);
         healthRenderSystem = world.setSystem(new HealthRenderSystem(game.getCamera(), game.getSpriteBatch(), game.getAtlas(), game.getSmallFont()), true);
         hudRenderSystem = world.setSystem(new HudRenderSystem(game.getCamera(), game.getSpriteBatch(), game.getAtlas(), game.getSmallFont(), game.getLargeFont()), true);
         boundsRenderSystem = world.setSystem(new BoundsRenderSystem(game.getCamera(), game.getSpriteBatch()), true);
@@ -107,6 +128,11 @@ public class GameScreen implements Screen {
         EntityFactory.createPlayer(world);
 
         ds.setup();
+
+        if (Const.SIMULATION_THREAD && Gdx.app.getType() == Application.ApplicationType.Desktop) {
+            snapshots = new TripleBuffer<RenderSnapshot>(new RenderSnapshot(), new RenderSnapshot(), new RenderSnapshot());
+            simulation = new Simulation();
+        }
     }
 
     String getName() {
@@ -119,21 +145,49 @@ public class GameScreen implements Screen {
         if (Gdx.input.isKeyPressed(Input.Keys.ESCAPE)) {
             Gdx.app.log(Const.NAME, "ESCAPE press detected: " + getName());
             game.setScreen(new MenuScreen(game));
+            return; // this screen has been disposed
         }
 
         SpacePeng.glClear();
 
         SpriteBatch batch = game.getSpriteBatch();
-        batch.begin();
 
-        world.setDelta(delta);
-        world.process();
+        if (simulation != null && simulation.isRunning()) {
+            // only draw, the world is busy on the simulation thread
+            RenderSnapshot snapshot = snapshots.acquire();
+            staticLayer.draw(game.getCamera().combined);
+            batch.begin();
+            float interpolation = (System.nanoTime() - snapshot.time) / (Const.SIMULATION_STEP * 1000000000f);
+            spriteRenderSystem.draw(snapshot, MathUtils.clamp(interpolation, 0, 1));
+            healthRenderSystem.draw(snapshot);
+            hudRenderSystem.draw(snapshot);
+            batch.end();
+            hudRenderSystem.setRenderStats(batch.renderCalls, spriteRenderSystem.getTextureSwitches());
+            return;
+        }
+
+        if (Const.FIXED_TIMESTEP) {
+            accumulator += Math.min(delta, Const.SIMULATION_STEP * Const.MAX_SIMULATION_STEPS);
+            while (accumulator >= Const.SIMULATION_STEP) {
+                spriteRenderSystem.savePreviousPositions();
+                world.setDelta(Const.SIMULATION_STEP);
+                world.process();
+                accumulator -= Const.SIMULATION_STEP;
+            }
+            spriteRenderSystem.setInterpolation(accumulator / Const.SIMULATION_STEP);
+        } else {
+            world.setDelta(delta);
+            world.process();
+        }
 
+        staticLayer.draw(game.getCamera().combined);
+        batch.begin();
         spriteRenderSystem.process();
         healthRenderSystem.process();
         hudRenderSystem.process();
 
         batch.end();
+        hudRenderSystem.setRenderStats(batch.renderCalls, spriteRenderSystem.getTextureSwitches());
 
         eventManager.process();
         if (Const.DEV_MODE) {
@@ -152,6 +206,10 @@ public class GameScreen implements Screen {
         // start the playback of the background music
         // when the screen is shown
         SpacePeng.musicManager.play(MusicKey.GAME);
+
+        if (simulation != null) {
+            simulation.start();
+        }
     }
 
     @Override
@@ -179,9 +237,93 @@ public class GameScreen implements Screen {
         // the following call disposes the screen's stage, but on my computer it
         // crashes the game so I commented it out; more info can be found at:
         // http://www.badlogicgames.com/forum/viewtopic.php?f=11&t=3624
+        if (simulation != null) {
+            simulation.stop();
+        }
         if (world != null) {
             world.dispose();
         }
+        staticLayer.dispose();
     }
 
-}
\ No newline at end of file
+    /**
+     * Ticks the world in fixed steps on a thread of its own and publishes a render snapshot after each tick.
+     */
+    private class Simulation implements Runnable {
+        private final long stepNanos = (long) (Const.SIMULATION_STEP * 1000000000L);
+
+        private Thread thread;
+        private volatile boolean running;
+
+        void start() {
+            if (thread != null) {
+                return;
+            }
+            running = true;
+            thread = new Thread(this, "simulation");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        boolean isRunning() {
+            return thread != null;
+        }
+
+        void stop() {
+            if (thread == null) {
+                return;
+            }
+            running = false;
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            thread = null;
+        }
+
+        @Override
+        public void run() {
+            try {
+                long nextTick = System.nanoTime();
+                while (running) {
+                    long now = System.nanoTime();
+                    if (now < nextTick) {
+                        Thread.sleep((nextTick - now) / 1000000L, (int) ((nextTick - now) % 1000000L));
+                        continue;
+                    }
+
+                    tick();
+
+                    nextTick += stepNanos;
+                    if (now - nextTick > stepNanos * Const.MAX_SIMULATION_STEPS) {
+                        nextTick = now; // too far behind, slow down rather than catching up
+                    }
+                }
+            } catch (final Throwable t) {
+                // fail on the render thread, like any other error would
+                Gdx.app.postRunnable(new Runnable() {
+                    @Override
+                    public void run() {
+                        throw new RuntimeException("Simulation failed", t);
+                    }
+                });
+            }
+        }
+
+        private void tick() {
+            spriteRenderSystem.savePreviousPositions();
+            world.setDelta(Const.SIMULATION_STEP);
+            world.process();
+            eventManager.process();
+
+            RenderSnapshot snapshot = snapshots.getBack();
+            snapshot.clear();
+            spriteRenderSystem.capture(snapshot);
+            healthRenderSystem.capture(snapshot);
+            hudRenderSystem.capture(snapshot);
+            snapshot.time = System.nanoTime();
+            snapshots.publish();
+        }
+    }
+}
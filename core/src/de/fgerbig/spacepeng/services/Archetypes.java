@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.services;
+
+import com.artemis.Archetype;
+import com.artemis.ArchetypeBuilder;
+import com.artemis.Manager;
+import de.fgerbig.spacepeng.components.*;
+import de.fgerbig.spacepeng.components.collision.CircleBounds;
+import de.fgerbig.spacepeng.components.collision.CollisionLayer;
+import de.fgerbig.spacepeng.components.collision.RectangleBounds;
+import de.fgerbig.spacepeng.components.powerup.Coin;
+
+/**
+ * The compositions of all entity kinds created by the {@link EntityFactory}.
+ * <p/>
+ * An entity created from an archetype gets all its components at once, so its
+ * composition and system subscriptions are resolved a single time.
+ */
+public class Archetypes extends Manager {
+    public Archetype background;
+    public Archetype player;
+    public Archetype playerShot;
+    public Archetype alienShot;
+    public Archetype alien;
+    public Archetype alienBoss;
+    public Archetype coin;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void initialize() {
+        background = new ArchetypeBuilder()
+                .add(Position.class, Sprite.class)
+                .build(world);
+
+        player = new ArchetypeBuilder(background)
+                .add(Velocity.class, CircleBounds.class, Player.class, StayOnScreen.class, CollisionLayer.class)
+                .build(world);
+
+        Archetype shot = new ArchetypeBuilder(background)
+                .add(Velocity.class, FastMover.class, RectangleBounds.class, OffScreenRemove.class, CollisionLayer.class)
+                .build(world);
+        playerShot = shot;
+        alienShot = shot;
+
+        alien = new ArchetypeBuilder(background)
+                .add(BasePosition.class, CircleBounds.class, PathMovement.class, Formation.class, Alien.class, AttackGroup.class, CollisionLayer.class)
+                .build(world);
+
+        alienBoss = new ArchetypeBuilder(alien)
+                .add(Health.class, AttackPathMovement.class)
+                .build(world);
+
+        coin = new ArchetypeBuilder(background)
+                .add(Coin.class, AnimationParameters.class, CircleBounds.class, Velocity.class, OffScreenRemove.class, CollisionLayer.class)
+                .build(world);
+    }
+}
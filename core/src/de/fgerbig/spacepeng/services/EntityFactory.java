@@ -28,204 +28,181 @@ import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.assets.SoundKey;
 import de.fgerbig.spacepeng.components.*;
 import de.fgerbig.spacepeng.components.collision.CircleBounds;
+import de.fgerbig.spacepeng.components.collision.CollisionLayer;
 import de.fgerbig.spacepeng.components.collision.RectangleBounds;
 import de.fgerbig.spacepeng.components.powerup.Coin;
+import de.fgerbig.spacepeng.global.CollisionLayers;
 import de.fgerbig.spacepeng.global.Const;
 import de.fgerbig.spacepeng.global.Groups;
 import de.fgerbig.spacepeng.global.Tags;
+import de.fgerbig.spacepeng.particles.Effect;
+import de.fgerbig.spacepeng.systems.ParticleSystem;
 
 public class EntityFactory {
 
+    // vibrates on the render thread, the world may run on the simulation thread
+    private static final Runnable VIBRATE = new Runnable() {
+        @Override
+        public void run() {
+            Gdx.input.vibrate(500); //TODO
+        }
+    };
+
     public static Entity createBackground(World world, String name) {
-        Entity e = world.createEntity();
+        Entity e = world.createEntity(archetypes(world).background);
 
-        Position position = new Position();
+        Position position = e.getComponent(Position.class);
         position.x = Const.WIDTH / 2;
         position.y = Const.HEIGHT / 2;
-        e.edit().add(position);
 
-        Sprite sprite = new Sprite();
-        sprite.name = "background";
+        Sprite sprite = e.getComponent(Sprite.class);
+        sprite.regionId = SpacePeng.spriteRegistry.getId("background");
         sprite.layer = Sprite.Layer.BACKGROUND;
         sprite.scaleX = 1.25f; // 800/640
         sprite.scaleY = 1.25f;
-        e.edit().add(sprite);
 
         return e;
     }
 
     public static Entity createPlayer(World world) {
-        Entity e = world.createEntity();
+        Entity e = world.createEntity(archetypes(world).player);
 
-        Position position = new Position();
+        Position position = e.getComponent(Position.class);
         position.x = 0;
         position.y = 0;
-        e.edit().add(position);
 
-        Sprite sprite = new Sprite();
-        sprite.name = Player.SPRITE_NAME;
+        Sprite sprite = e.getComponent(Sprite.class);
+        sprite.regionId = SpacePeng.spriteRegistry.getId(Player.SPRITE_NAME);
         sprite.layer = Sprite.Layer.ACTORS;
-        e.edit().add(sprite);
 
-        Velocity velocity = new Velocity();
+        Velocity velocity = e.getComponent(Velocity.class);
         velocity.vectorX = 0;
         velocity.vectorY = 0;
-        e.edit().add(velocity);
 
-        CircleBounds bounds = new CircleBounds();
+        CircleBounds bounds = e.getComponent(CircleBounds.class);
         bounds.radius = 16;
-        e.edit().add(bounds);
 
-        Player info = new Player();
+        Player info = e.getComponent(Player.class);
         info.lives = info.DEFAULT_LIVES;
         info.score = 0;
-        e.edit().add(info);
 
-        StayOnScreen stayOnScreen = new StayOnScreen();
-        e.edit().add(stayOnScreen);
+        CollisionLayer layer = e.getComponent(CollisionLayer.class);
+        layer.category = CollisionLayers.PLAYER;
+        layer.mask = CollisionLayers.PLAYER_MASK;
 
-        world.getManager(GroupManager.class).add(e, Groups.PLAYER); // for collision detection
         world.getManager(TagManager.class).register(Tags.PLAYER, e);
 
         return e;
     }
 
     public static Entity createPlayerShot(World world, float x, float y) {
-        Entity e = world.createEntity();
+        Entity e = world.createEntity(archetypes(world).playerShot);
 
-        Position position = new Position();
+        Position position = e.getComponent(Position.class);
         position.x = x;
         position.y = y;
-        e.edit().add(position);
 
-        Sprite sprite = new Sprite();
-        sprite.name = "playerShot";
+        Sprite sprite = e.getComponent(Sprite.class);
+        sprite.regionId = SpacePeng.spriteRegistry.getId("playerShot");
         sprite.layer = Sprite.Layer.EFFECTS;
-        e.edit().add(sprite);
 
-        Velocity velocity = new Velocity();
+        Velocity velocity = e.getComponent(Velocity.class);
+        velocity.vectorX = 0;
         velocity.vectorY = 800;
-        e.edit().add(velocity);
 
-        RectangleBounds bounds = new RectangleBounds();
+        FastMover fastMover = e.getComponent(FastMover.class);
+        fastMover.previousX = x;
+        fastMover.previousY = y;
+
+        RectangleBounds bounds = e.getComponent(RectangleBounds.class);
         bounds.width = 10;
         bounds.height = 45;
-        e.edit().add(bounds);
-
-        OffScreenRemove offScreenRemove = new OffScreenRemove();
-        e.edit().add(offScreenRemove);
 
-        SpacePeng.soundManager.play(SoundKey.PLAYER_SHOT);
+        CollisionLayer layer = e.getComponent(CollisionLayer.class);
+        layer.category = CollisionLayers.PLAYER_SHOT;
+        layer.mask = CollisionLayers.PLAYER_SHOT_MASK;
 
-        world.getManager(GroupManager.class).add(e, Groups.PLAYER_SHOTS);
+        SpacePeng.soundManager.post(SoundKey.PLAYER_SHOT);
 
         return e;
     }
 
     public static Entity createAlien(World world, float x, float y, int groupId) {
-        Entity e = world.createEntity();
+        Entity e = world.createEntity(archetypes(world).alien);
+        initAlien(e, x, y, Alien.SPRITE_NAME, 14);
+        e.getComponent(AttackGroup.class).id = groupId;
 
-        BasePosition basePosition = new BasePosition();
-        basePosition.x = x;
-        basePosition.y = y;
-        e.edit().add(basePosition);
+        world.getManager(GroupManager.class).add(e, Groups.ALIENS);
 
-        Position position = new Position();
-        position.x = x;
-        position.y = y;
-        e.edit().add(position);
+        return e;
+    }
 
-        Sprite sprite = new Sprite();
-        sprite.name = Alien.SPRITE_NAME;
-        sprite.layer = Sprite.Layer.ACTORS;
-        e.edit().add(sprite);
+    public static Entity createAlienBoss(World world, float x, float y, float health, String pathFunctionId) {
+        Entity e = world.createEntity(archetypes(world).alienBoss);
+        initAlien(e, x, y, Alien.SPRITE_NAME_BOSS, 62);
 
-        CircleBounds bounds = new CircleBounds();
-        bounds.radius = 14;
-        e.edit().add(bounds);
+        Health h = e.getComponent(Health.class);
+        h.health = h.maximumHealth = health;
 
-        PathMovement pathMovement = new PathMovement();
-        e.edit().add(pathMovement);
+        AttackPathMovement attackPathMovement = e.getComponent(AttackPathMovement.class);
+        attackPathMovement.pathFunctionId = pathFunctionId;
 
-        Alien alien = new Alien();
-        e.edit().add(alien);
+        e.getComponent(AttackGroup.class).id = Groups.BOSS_ATTACK_GROUP;
 
         world.getManager(GroupManager.class).add(e, Groups.ALIENS);
-        world.getManager(GroupManager.class).add(e, Groups.ALIEN_ATTACK_GROUP + groupId);
 
         return e;
     }
 
-    public static Entity createAlienBoss(World world, float x, float y, float health, String pathFunctionId) {
-        Entity e = world.createEntity();
-
-        BasePosition basePosition = new BasePosition();
+    private static void initAlien(Entity e, float x, float y, String spriteName, float radius) {
+        BasePosition basePosition = e.getComponent(BasePosition.class);
         basePosition.x = x;
         basePosition.y = y;
-        e.edit().add(basePosition);
 
-        Position position = new Position();
+        Position position = e.getComponent(Position.class);
         position.x = x;
         position.y = y;
-        e.edit().add(position);
 
-        Sprite sprite = new Sprite();
-        sprite.name = Alien.SPRITE_NAME_BOSS;
+        Sprite sprite = e.getComponent(Sprite.class);
+        sprite.regionId = SpacePeng.spriteRegistry.getId(spriteName);
         sprite.layer = Sprite.Layer.ACTORS;
-        e.edit().add(sprite);
-
-        CircleBounds bounds = new CircleBounds();
-        bounds.radius = 62;
-        e.edit().add(bounds);
-
-        Health h = new Health();
-        h.health = h.maximumHealth = health;
-        e.edit().add(h);
-
-        PathMovement pathMovement = new PathMovement();
-        e.edit().add(pathMovement);
-
-        AttackPathMovement attackPathMovement = new AttackPathMovement();
-        attackPathMovement.pathFunctionId = pathFunctionId;
-        e.edit().add(attackPathMovement);
-
-        Alien alien = new Alien();
-        e.edit().add(alien);
 
-        world.getManager(GroupManager.class).add(e, Groups.ALIENS);
-        world.getManager(GroupManager.class).add(e, Groups.ALIEN_ATTACK_GROUP + 999);
+        CircleBounds bounds = e.getComponent(CircleBounds.class);
+        bounds.radius = radius;
 
-        return e;
+        CollisionLayer layer = e.getComponent(CollisionLayer.class);
+        layer.category = CollisionLayers.ALIEN;
+        layer.mask = CollisionLayers.ALIEN_MASK;
     }
 
     public static Entity createAlienShot(World world, float x, float y) {
-        Entity e = world.createEntity();
+        Entity e = world.createEntity(archetypes(world).alienShot);
 
-        Position position = new Position();
+        Position position = e.getComponent(Position.class);
         position.x = x;
         position.y = y;
-        e.edit().add(position);
 
-        Sprite sprite = new Sprite();
-        sprite.name = "alienShot";
+        Sprite sprite = e.getComponent(Sprite.class);
+        sprite.regionId = SpacePeng.spriteRegistry.getId("alienShot");
         sprite.layer = Sprite.Layer.EFFECTS;
-        e.edit().add(sprite);
 
-        Velocity velocity = new Velocity();
+        Velocity velocity = e.getComponent(Velocity.class);
+        velocity.vectorX = 0;
         velocity.vectorY = -400;
-        e.edit().add(velocity);
 
-        RectangleBounds bounds = new RectangleBounds();
+        FastMover fastMover = e.getComponent(FastMover.class);
+        fastMover.previousX = x;
+        fastMover.previousY = y;
+
+        RectangleBounds bounds = e.getComponent(RectangleBounds.class);
         bounds.width = 2;
         bounds.height = 10;
-        e.edit().add(bounds);
 
-        OffScreenRemove offScreenRemove = new OffScreenRemove();
-        e.edit().add(offScreenRemove);
+        CollisionLayer layer = e.getComponent(CollisionLayer.class);
+        layer.category = CollisionLayers.ALIEN_SHOT;
+        layer.mask = CollisionLayers.ALIEN_SHOT_MASK;
 
-        SpacePeng.soundManager.play(SoundKey.ALIEN_SHOT);
-
-        world.getManager(GroupManager.class).add(e, Groups.ALIEN_SHOTS);
+        SpacePeng.soundManager.post(SoundKey.ALIEN_SHOT);
 
         return e;
     }
@@ -243,161 +220,64 @@ public class EntityFactory {
         }
     }
 
-    protected static Entity createExplosion(World world, float x, float y, float scale) {
-        Entity e = world.createEntity();
-
-        Position position = new Position();
-        position.x = x;
-        position.y = y;
-        e.edit().add(position);
-
-        Sprite sprite = new Sprite();
-        sprite.name = "explosion";
-        sprite.scaleX = sprite.scaleY = scale;
-        sprite.r = 1;
-        sprite.g = 216 / 255f;
-        sprite.b = 0;
-        sprite.a = 0.5f;
-        sprite.layer = Sprite.Layer.EFFECTS;
-        e.edit().add(sprite);
-
-        AnimationParameters animationParameters = new AnimationParameters();
-        animationParameters.frameDuration = 0.5f / 3;
-        e.edit().add(animationParameters);
-
-        ExpiringEntity expiringEntity = new ExpiringEntity();
-        expiringEntity.delay = 0.5f;
-        e.edit().add(expiringEntity);
-
-        ScaleAnimation scaleAnimation = new ScaleAnimation();
-        scaleAnimation.active = true;
-        scaleAnimation.max = scale;
-        scaleAnimation.min = scale / 100f;
-        scaleAnimation.speed = 1.0f;
-        scaleAnimation.repeat = false;
-        e.edit().add(scaleAnimation);
-
-        return e;
-    }
-
-    public static Entity createPlayerExplosion(World world, float x, float y) {
-        Entity e = EntityFactory.createExplosion(world, x, y, 10f);
-        for (int i = 0; i < 50; i++) {
-            EntityFactory.createParticle(world, x, y);
-        }
-
-        SpacePeng.soundManager.play(SoundKey.PLAYER_EXPLOSION);
-        Gdx.input.vibrate(500); //TODO
-
-        return e;
-    }
-
-    public static Entity createAlienExplosion(World world, float x, float y) {
-        Entity e = EntityFactory.createExplosion(world, x, y, 1.5f);
-        for (int i = 0; i < 10; i++) {
-            EntityFactory.createParticle(world, x, y);
-        }
-
-        SpacePeng.soundManager.play(SoundKey.ALIEN_EXPLOSION);
+    public static void createPlayerExplosion(World world, float x, float y) {
+        world.getSystem(ParticleSystem.class).emit(Effect.PLAYER_EXPLOSION, x, y);
 
-        return e;
+        SpacePeng.soundManager.post(SoundKey.PLAYER_EXPLOSION);
+        SpacePeng.runOnRenderThread(VIBRATE);
     }
 
-    public static Entity createAlienBossExplosion(World world, float x, float y) {
-        Entity e = EntityFactory.createExplosion(world, x, y, 10f);
-        for (int i = 0; i < 50; i++) {
-            EntityFactory.createParticle(world, x, y);
-        }
-
-        SpacePeng.soundManager.play(SoundKey.ALIEN_BOSS_EXPLOSION);
+    public static void createAlienExplosion(World world, float x, float y) {
+        world.getSystem(ParticleSystem.class).emit(Effect.ALIEN_EXPLOSION, x, y);
 
-        return e;
+        SpacePeng.soundManager.post(SoundKey.ALIEN_EXPLOSION);
     }
 
-    public static Entity createParticle(World world, float x, float y) {
-        Entity e = world.createEntity();
-
-        Position position = new Position();
-        position.x = x;
-        position.y = y;
-        e.edit().add(position);
-
-        Sprite sprite = new Sprite();
-        sprite.name = "particle";
-        sprite.scaleX = sprite.scaleY = MathUtils.random(0.5f, 1f);
-        sprite.r = 1;
-        sprite.g = 216 / 255f;
-        sprite.b = 0;
-        sprite.a = 1f;
-        sprite.layer = Sprite.Layer.EFFECTS;
-        e.edit().add(sprite);
-
+    public static void createAlienBossExplosion(World world, float x, float y) {
+        world.getSystem(ParticleSystem.class).emit(Effect.ALIEN_BOSS_EXPLOSION, x, y);
 
-        float radians = MathUtils.random(2 * MathUtils.PI);
-        float magnitude = MathUtils.random(400f);
-
-        Velocity velocity = new Velocity();
-        velocity.vectorX = magnitude * MathUtils.cos(radians);
-        velocity.vectorY = magnitude * MathUtils.sin(radians);
-        e.edit().add(velocity);
-
-        ExpiringEntity expiringEntity = new ExpiringEntity();
-        expiringEntity.delay = 1;
-        e.edit().add(expiringEntity);
-
-        OffScreenRemove offScreenRemove = new OffScreenRemove();
-        e.edit().add(offScreenRemove);
-
-        ColorAnimation colorAnimation = new ColorAnimation();
-        colorAnimation.alphaAnimate = true;
-        colorAnimation.alphaSpeed = -1f;
-        colorAnimation.alphaMin = 0f;
-        colorAnimation.alphaMax = 1f;
-        colorAnimation.repeat = false;
-        e.edit().add(colorAnimation);
-
-        return e;
+        SpacePeng.soundManager.post(SoundKey.ALIEN_BOSS_EXPLOSION);
     }
 
     public static Entity createCoin(World world, Coin.Type type) {
-        Entity e = world.createEntity();
+        Entity e = world.createEntity(archetypes(world).coin);
 
-        Position position = new Position();
+        Position position = e.getComponent(Position.class);
         position.x = MathUtils.random(Const.POWERUP_BORDER, Const.WIDTH - Const.POWERUP_BORDER);
         position.y = Const.HEIGHT;
-        e.edit().add(position);
 
-        e.edit().add(new Coin(type));
+        e.getComponent(Coin.class).type = type;
 
-        Sprite sprite = new Sprite();
-        sprite.name = type.spriteName;
+        Sprite sprite = e.getComponent(Sprite.class);
+        sprite.regionId = SpacePeng.spriteRegistry.getId(type.spriteName);
         sprite.layer = Sprite.Layer.EFFECTS;
         sprite.scaleX = 0.75f;
         sprite.scaleY = 0.75f;
         sprite.r = type.r;
         sprite.g = type.g;
         sprite.b = type.b;
-        e.edit().add(sprite);
 
-        AnimationParameters animationParameters = new AnimationParameters();
+        AnimationParameters animationParameters = e.getComponent(AnimationParameters.class);
         animationParameters.frameDuration = 0.1f;
         animationParameters.playMode = Animation.PlayMode.LOOP;
-        e.edit().add(animationParameters);
 
-        CircleBounds bounds = new CircleBounds();
+        CircleBounds bounds = e.getComponent(CircleBounds.class);
         bounds.radius = 16;
-        e.edit().add(bounds);
 
-        Velocity velocity = new Velocity();
+        Velocity velocity = e.getComponent(Velocity.class);
         velocity.vectorX = 0;
         velocity.vectorY = -100;
-        e.edit().add(velocity);
 
-        OffScreenRemove offScreenRemove = new OffScreenRemove();
-        e.edit().add(offScreenRemove);
+        CollisionLayer layer = e.getComponent(CollisionLayer.class);
+        layer.category = CollisionLayers.COIN;
+        layer.mask = CollisionLayers.COIN_MASK;
 
         world.getManager(GroupManager.class).add(e, Groups.COINS);
 
         return e;
     }
+
+    private static Archetypes archetypes(World world) {
+        return world.getManager(Archetypes.class);
+    }
 }
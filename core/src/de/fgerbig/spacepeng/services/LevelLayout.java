@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.services;
+
+import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.path.AlienBossAttackPathFunction;
+import de.fgerbig.spacepeng.path.TwoAlienBossesAttackPathFunction;
+
+import java.util.Arrays;
+
+/**
+ * The aliens and bosses of a level: where they start and which attack group or path they have.
+ * <p/>
+ * Used to set up a level and to size everything for it in advance, so both always agree.
+ */
+public class LevelLayout {
+    private static final int DX = 60;
+    private static final int DY = 60;
+
+    // attack group of each formation cell, by row and column
+    private static final int[][] GROUP_IDS = {
+            {9, 1, 9, 7, 7, 8, 8, 10, 2, 10},
+            {1, 1, 1, 5, 7, 8, 6, 2, 2, 2},
+            {9, 3, 5, 5, 5, 6, 6, 6, 4, 10},
+            {3, 3, 3, 12, 11, 11, 12, 4, 4, 4}};
+
+    // indexed by level % 10
+    private static final LevelLayout[] LEVELS = {
+            new LevelLayout().aliens(3, 0, 4, 3)
+                    .boss(Const.WIDTH * 1 / 4, Const.HEIGHT * 2 / 3, TwoAlienBossesAttackPathFunction.id)
+                    .boss(Const.WIDTH * 3 / 4, Const.HEIGHT * 2 / 3, TwoAlienBossesAttackPathFunction.id),
+            new LevelLayout().aliens(0, 0, 10, 3),
+            new LevelLayout().aliens(0, 0, 10, 4),
+            new LevelLayout().boss(Const.WIDTH / 2, Const.HEIGHT * 2 / 3, AlienBossAttackPathFunction.id),
+            new LevelLayout().aliens(0, 0, 10, 3),
+            new LevelLayout().aliens(0, 0, 10, 4),
+            new LevelLayout().aliens(0, 2, 3, 1).aliens(7, 2, 3, 1)
+                    .boss(Const.WIDTH / 2, Const.HEIGHT * 2 / 3, AlienBossAttackPathFunction.id),
+            new LevelLayout().aliens(0, 0, 10, 3),
+            new LevelLayout().aliens(0, 0, 10, 4),
+            new LevelLayout().aliens(0, 0, 3, 3).aliens(7, 0, 3, 3)
+                    .boss(Const.WIDTH / 2, Const.HEIGHT * 2 / 3, AlienBossAttackPathFunction.id)};
+
+    private int alienCount;
+    private float[] alienX = new float[0];
+    private float[] alienY = new float[0];
+    private int[] alienGroups = new int[0];
+
+    private int bossCount;
+    private float[] bossX = new float[0];
+    private float[] bossY = new float[0];
+    private String[] bossPaths = new String[0];
+
+    public static LevelLayout get(int level) {
+        return LEVELS[level % LEVELS.length];
+    }
+
+    /**
+     * Adds a block of formation aliens, given in formation cells.
+     */
+    private LevelLayout aliens(int x, int y, int width, int height) {
+        int count = alienCount + width * height;
+        alienX = Arrays.copyOf(alienX, count);
+        alienY = Arrays.copyOf(alienY, count);
+        alienGroups = Arrays.copyOf(alienGroups, count);
+
+        for (int ix = x; ix < x + width; ix++) {
+            for (int iy = y; iy < y + height; iy++) {
+                alienX[alienCount] = (Const.WIDTH - (9 * DX)) / 2 + ix * DX;
+                alienY[alienCount] = Const.HEIGHT - DY * 3 / 2 - iy * DY;
+                alienGroups[alienCount] = GROUP_IDS[iy][ix];
+                alienCount++;
+            }
+        }
+        return this;
+    }
+
+    private LevelLayout boss(float x, float y, String pathFunctionId) {
+        bossX = Arrays.copyOf(bossX, bossCount + 1);
+        bossY = Arrays.copyOf(bossY, bossCount + 1);
+        bossPaths = Arrays.copyOf(bossPaths, bossCount + 1);
+
+        bossX[bossCount] = x;
+        bossY[bossCount] = y;
+        bossPaths[bossCount] = pathFunctionId;
+        bossCount++;
+        return this;
+    }
+
+    public int getAlienCount() {
+        return alienCount;
+    }
+
+    public float getAlienX(int index) {
+        return alienX[index];
+    }
+
+    public float getAlienY(int index) {
+        return alienY[index];
+    }
+
+    public int getAlienGroup(int index) {
+        return alienGroups[index];
+    }
+
+    public int getBossCount() {
+        return bossCount;
+    }
+
+    public float getBossX(int index) {
+        return bossX[index];
+    }
+
+    public float getBossY(int index) {
+        return bossY[index];
+    }
+
+    public String getBossPath(int index) {
+        return bossPaths[index];
+    }
+}
@@ -21,10 +21,13 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.audio.Sound;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.utils.Disposable;
+import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.assets.SoundKey;
 import de.fgerbig.spacepeng.global.Const;
 import de.fgerbig.spacepeng.utils.LRUCache;
 
+import java.util.EnumMap;
+
 /**
  * A service that manages the sound effects.
  */
@@ -43,12 +46,26 @@ public class SoundManager implements LRUCache.CacheEntryRemovedListener<SoundKey
      */
     private boolean enabled = true;
 
+    /**
+     * Plays each sound, posted to the render thread if needed.
+     */
+    private final EnumMap<SoundKey, Runnable> players = new EnumMap<SoundKey, Runnable>(SoundKey.class);
+
     /**
      * Creates the sound manager.
      */
     public SoundManager() {
         soundCache = new LRUCache<SoundKey, Sound>(10);
         soundCache.setEntryRemovedListener(this);
+
+        for (final SoundKey sound : SoundKey.values()) {
+            players.put(sound, new Runnable() {
+                @Override
+                public void run() {
+                    play(sound);
+                }
+            });
+        }
     }
 
     /**
@@ -71,6 +88,14 @@ public class SoundManager implements LRUCache.CacheEntryRemovedListener<SoundKey
         soundToPlay.play(volume);
     }
 
+    /**
+     * Plays the specified sound on the render thread, right away if called there.
+     * Used by the world, which may run on the simulation thread.
+     */
+    public void post(SoundKey sound) {
+        SpacePeng.runOnRenderThread(players.get(sound));
+    }
+
     /**
      * Sets the sound volume which must be inside the range [0,1].
      */
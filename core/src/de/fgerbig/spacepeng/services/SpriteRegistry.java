@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.services;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import de.fgerbig.spacepeng.global.Const;
+
+/**
+ * A service that maps the region names of the texture atlas to dense int ids.
+ * <p/>
+ * Names are resolved once when an entity is created; systems look up regions
+ * and animation frames by id without hashing strings every frame.
+ */
+public class SpriteRegistry {
+    /**
+     * Returned for unknown region names.
+     */
+    public static final int NONE = -1;
+
+    private final ObjectIntMap<String> ids = new ObjectIntMap<String>();
+    private String[] names = new String[0];
+    private AtlasRegion[] regions = new AtlasRegion[0];
+    private Array<AtlasRegion>[] frames;
+    // per id: dense index of the atlas page texture the region lives on
+    private int[] textureIndices = new int[0];
+    private int textureCount;
+
+    /**
+     * Assigns ids to all region names of the atlas, replacing any previously loaded atlas.
+     */
+    @SuppressWarnings("unchecked")
+    public void load(TextureAtlas atlas) {
+        ids.clear();
+        Array<AtlasRegion> atlasRegions = atlas.getRegions();
+        Array<String> uniqueNames = new Array<String>(atlasRegions.size);
+
+        for (AtlasRegion region : atlasRegions) {
+            if (!ids.containsKey(region.name)) {
+                ids.put(region.name, uniqueNames.size);
+                uniqueNames.add(region.name);
+            }
+        }
+
+        int count = uniqueNames.size;
+        names = new String[count];
+        regions = new AtlasRegion[count];
+        frames = new Array[count];
+        textureIndices = new int[count];
+        ObjectIntMap<Texture> textures = new ObjectIntMap<Texture>();
+
+        for (int id = 0; count > id; id++) {
+            String name = uniqueNames.get(id);
+            names[id] = name;
+            regions[id] = atlas.findRegion(name);
+            textureIndices[id] = textures.get(regions[id].getTexture(), textures.size);
+            if (textureIndices[id] == textures.size) {
+                textures.put(regions[id].getTexture(), textures.size);
+            }
+            Gdx.app.log(Const.NAME, "added texture atlas region '" + name + "' as sprite " + id);
+
+            // more than one region with this name => animation
+            Array<AtlasRegion> animationRegions = atlas.findRegions(name);
+            if (animationRegions.size > 1) {
+                Gdx.app.log(Const.NAME, "added animation '" + name + "' with " + animationRegions.size + " texture atlas regions");
+                frames[id] = animationRegions;
+            }
+        }
+        textureCount = Math.max(1, textures.size);
+    }
+
+    /**
+     * Returns the id of the region with the given name.
+     *
+     * @throws IllegalArgumentException if there is no region with this name
+     */
+    public int getId(String name) {
+        int id = ids.get(name, NONE);
+        if (id == NONE) {
+            throw new IllegalArgumentException("Unknown sprite '" + name + "'");
+        }
+        return id;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public AtlasRegion getRegion(int id) {
+        return regions[id];
+    }
+
+    /**
+     * Returns the animation frames of the region or null if it isn't animated.
+     */
+    public Array<AtlasRegion> getFrames(int id) {
+        return frames[id];
+    }
+
+    /**
+     * Returns the index of the texture (atlas page) the region is drawn from, 0 until {@link #getTextureCount()}.
+     */
+    public int getTextureIndex(int id) {
+        return textureIndices[id];
+    }
+
+    public int getTextureCount() {
+        return textureCount;
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
@@ -25,6 +25,7 @@ import com.artemis.managers.GroupManager;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.EntityProcessingSystem;
 import com.artemis.utils.ImmutableBag;
+import com.artemis.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import de.fgerbig.spacepeng.components.*;
@@ -54,12 +55,18 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
     ComponentMapper<TransitionToNewPathMovement> tpmv_cm;
     @Wire
     ComponentMapper<AttackPathMovement> apmv_cm;
+    @Wire
+    ComponentMapper<AttackGroup> ag_cm;
 
     private final float MAX_LEVEL = 100.0f;
 
     private boolean isAttackingAllowed;
 
     private GroupManager gm;
+    private TagManager tm;
+    private IsAttackingExpirySystem isAttackingSystem;
+    private AttackGroupSystem attackGroups;
+    private PathMovementSystem pathMovementSystem;
 
     private float levelInfluence;
     private float time;
@@ -67,26 +74,32 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
 
     private float timeRage, killRage;
 
+    // shared by all aliens of the current tick, see begin()
+    private float chance_switchToAttacking, chance_shootAttacking, chance_shootNoAttacking;
+    private Position playerPos;
+
     public AlienBehaviourSystem() {
-        super(Aspect.getAspectForAll(Alien.class, Position.class, PathMovement.class));
+        super(Aspect.getAspectForAll(Alien.class, Position.class, PathMovement.class, AttackGroup.class));
     }
 
     @Override
     protected void initialize() {
         gm = world.getManager(GroupManager.class);
+        tm = world.getManager(TagManager.class);
+        isAttackingSystem = world.getSystem(IsAttackingExpirySystem.class);
+        attackGroups = world.getSystem(AttackGroupSystem.class);
+        pathMovementSystem = world.getSystem(PathMovementSystem.class);
     }
 
     protected float weightedChance(float min, float max, float levelInfluence, float timeRage, float killRage) {
         return MathUtils.clamp(min + (max - min) * levelInfluence + 0.01f * timeRage * killRage, min, max);
     }
 
+    /**
+     * Computes the state shared by all aliens once per tick.
+     */
     @Override
-    protected void process(final Entity e) {
-        final Alien alien = alien_cm.get(e);
-        final Position position = pos_cm.get(e);
-
-        boolean boss = hlth_cm.has(e); // only bosses have health
-
+    protected void begin() {
         // aliens get angry
         if (this.isAttackingAllowed) {
             this.time += world.getDelta();
@@ -100,15 +113,31 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
 //        Gdx.app.log(Const.NAME, "levelInfluence=" + levelInfluence);
 //        Gdx.app.log(Const.NAME, "timeRage=" + timeRage);
 //        Gdx.app.log(Const.NAME, "killRage=" + killRage);
-//        Gdx.app.log(Const.NAME, "boss=" + boss);
 
-        float chance_switchToAttacking = weightedChance(0.00001f, 0.001f, levelInfluence, timeRage, killRage);
+        chance_switchToAttacking = weightedChance(0.00001f, 0.001f, levelInfluence, timeRage, killRage);
 //        Gdx.app.log(Const.NAME, "chance_switchToAttacking=" + chance_switchToAttacking);
-        float chance_shootAttacking = weightedChance(0.0025f, 0.025f, levelInfluence, timeRage, killRage);
+        chance_shootAttacking = weightedChance(0.0025f, 0.025f, levelInfluence, timeRage, killRage);
 //        Gdx.app.log(Const.NAME, "chance_shootAttacking=" + chance_shootAttacking);
-        float chance_shootNoAttacking = weightedChance(0.0001f, 0.01f, levelInfluence, timeRage, killRage);
+        chance_shootNoAttacking = weightedChance(0.0001f, 0.01f, levelInfluence, timeRage, killRage);
 //        Gdx.app.log(Const.NAME, "chance_shootNoAttacking=" + chance_shootNoAttacking);
 
+        playerPos = isAttackingAllowed ? pos_cm.get(tm.getEntity(Tags.PLAYER)) : null;
+    }
+
+    @Override
+    protected void end() {
+        playerPos = null;
+    }
+
+    @Override
+    protected void process(final Entity e) {
+        final Alien alien = alien_cm.get(e);
+        final Position position = pos_cm.get(e);
+
+        boolean boss = hlth_cm.has(e); // only bosses have health
+
+        float chance_switchToAttacking = this.chance_switchToAttacking;
+        float chance_shootNoAttacking = this.chance_shootNoAttacking;
         if (boss) {
             chance_switchToAttacking *= 100;
             chance_shootNoAttacking *= 25;
@@ -116,7 +145,6 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
 
         // set alien to attacking
         if (!isAttacking_cm.has(e) && !tpmv_cm.has(e) && MathUtils.randomBoolean(chance_switchToAttacking) && isAttackingAllowed) {
-            String group = getAttackGroup(e);
             String pathFunctionId = DefaultAlienAttackPathFunction.id;
 
             // if special attack path movement specified, get the path function id
@@ -125,26 +153,10 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
                 pathFunctionId = attackPathMovement.pathFunctionId;
             }
 
-            if (group != null) {
-                setGroupAttacking(group, pathFunctionId);
-            } else {
-                IsAttacking isAttacking = new IsAttacking();
-                isAttacking.onExpiry = new Runnable() {
-                    @Override
-                    public void run() {
-                        e.edit().add(new TransitionToNewPathMovement(DefaultAlienMovementPathFunction.id));
-                    }
-                };
-                isAttacking.delay = 3.14f;
-                e.edit().add(isAttacking);
-                e.edit().add(new TransitionToNewPathMovement(pathFunctionId));
-            }
+            setGroupAttacking(ag_cm.get(e).id, pathFunctionId);
         }
 
         if (isAttackingAllowed) {
-            Entity playerEntity = world.getManager(TagManager.class).getEntity(Tags.PLAYER);
-            Position playerPos = pos_cm.get(playerEntity);
-
             boolean directlyAbovePlayer = Math.abs(position.x - playerPos.x) <= 10;
 
             if (isAttacking_cm.has(e)) { // shoot more often if attacking
@@ -173,44 +185,25 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
         }
     }
 
-    protected String getAttackGroup(Entity e) {
-        // get all groups this entity belongs to
-        ImmutableBag<String> groups = gm.getGroups(e);
-        for (String group : groups) {
-            // find attack group
-            if (group.startsWith(Groups.ALIEN_ATTACK_GROUP)) {
-                return group;
-            }
-        }
-        // no attack group found
-        return null;
-    }
-
-    protected void setGroupAttacking(String group, String pathFunctionId) {
+    protected void setGroupAttacking(int group, String pathFunctionId) {
         // get all entities in this group
-        ImmutableBag<Entity> entities = gm.getEntities(group);
-        for (final Entity e : entities) {
+        IntBag members = attackGroups.getMembers(group);
+        for (int i = 0; members.size() > i; i++) {
+            Entity e = world.getEntity(members.get(i));
             // set attacking
-            IsAttacking isAttacking = new IsAttacking();
-            isAttacking.onExpiry = new Runnable() {
-                @Override
-                public void run() {
-                    e.edit().add(new TransitionToNewPathMovement(DefaultAlienMovementPathFunction.id));
-                }
-            };
-            isAttacking.delay = 3.14f; //TODO
-            e.edit().add(isAttacking);
-            e.edit().add(new TransitionToNewPathMovement(pathFunctionId));
+            isAttackingSystem.add(e, 3.14f); //TODO
+            pathMovementSystem.transition(e, pathFunctionId);
         }
     }
 
-    protected void setGroupNotAttacking(String group) {
+    protected void setGroupNotAttacking(int group) {
         // get all entities in this group
-        ImmutableBag<Entity> entities = gm.getEntities(group);
-        for (Entity e : entities) {
+        IntBag members = attackGroups.getMembers(group);
+        for (int i = 0; members.size() > i; i++) {
+            Entity e = world.getEntity(members.get(i));
             // set not attacking
             e.edit().remove(IsAttacking.class);
-            e.edit().add(new TransitionToNewPathMovement(DefaultAlienMovementPathFunction.id));
+            pathMovementSystem.transition(e, DefaultAlienMovementPathFunction.id);
         }
     }
 
@@ -238,7 +231,7 @@ public class AlienBehaviourSystem extends EntityProcessingSystem {
 
             // default path movement
             if (pmv_cm.has(e)) {
-                e.edit().add(new TransitionToNewPathMovement(DefaultAlienMovementPathFunction.id));
+                pathMovementSystem.transition(e, DefaultAlienMovementPathFunction.id);
             }
         }
     }
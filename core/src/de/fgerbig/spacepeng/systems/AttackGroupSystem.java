@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import de.fgerbig.spacepeng.components.AttackGroup;
+import de.fgerbig.spacepeng.global.Groups;
+
+import java.util.Arrays;
+
+/**
+ * Indexes the entity ids of all attack groups, register as passive system.
+ */
+public class AttackGroupSystem extends EntitySystem {
+    private static final IntBag NO_MEMBERS = new IntBag(0);
+
+    @Wire
+    ComponentMapper<AttackGroup> ag_cm;
+
+    // entity ids indexed by attack group id
+    private IntBag[] members = new IntBag[16];
+    // per entity id: attack group id, NO_ATTACK_GROUP if none
+    private int[] groupOfId = new int[128];
+
+    @SuppressWarnings("unchecked")
+    public AttackGroupSystem() {
+        super(Aspect.getAspectForAll(AttackGroup.class));
+        Arrays.fill(groupOfId, Groups.NO_ATTACK_GROUP);
+    }
+
+    /**
+     * Returns the entity ids of the attack group, don't modify.
+     */
+    public IntBag getMembers(int groupId) {
+        if (groupId >= members.length || members[groupId] == null) {
+            return NO_MEMBERS;
+        }
+        return members[groupId];
+    }
+
+    @Override
+    protected void inserted(Entity e) {
+        int id = e.getId();
+        int groupId = ag_cm.get(e).id;
+        if (groupId == Groups.NO_ATTACK_GROUP) {
+            return; // not in a group, e.g. pre-warming entities
+        }
+
+        if (id >= groupOfId.length) {
+            int oldLength = groupOfId.length;
+            groupOfId = Arrays.copyOf(groupOfId, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(groupOfId, oldLength, groupOfId.length, Groups.NO_ATTACK_GROUP);
+        }
+        if (groupId >= members.length) {
+            members = Arrays.copyOf(members, Math.max(groupId + 1, members.length * 2));
+        }
+        if (members[groupId] == null) {
+            members[groupId] = new IntBag();
+        }
+
+        groupOfId[id] = groupId;
+        members[groupId].add(id);
+    }
+
+    @Override
+    protected void removed(Entity e) {
+        int id = e.getId();
+        if (id >= groupOfId.length || groupOfId[id] == Groups.NO_ATTACK_GROUP) {
+            return;
+        }
+
+        // swap-remove, the order of members doesn't matter
+        IntBag group = members[groupOfId[id]];
+        int last = group.size() - 1;
+        for (int i = 0; last >= i; i++) {
+            if (group.get(i) == id) {
+                group.set(i, group.get(last));
+                group.setSize(last);
+                break;
+            }
+        }
+        groupOfId[id] = Groups.NO_ATTACK_GROUP;
+    }
+
+    @Override
+    protected void processEntities(IntBag entities) {
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return false;
+    }
+}
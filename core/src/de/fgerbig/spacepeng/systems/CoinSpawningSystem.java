@@ -97,14 +97,10 @@ public class CoinSpawningSystem extends VoidEntitySystem {
         Entity playerEntity = world.getManager(TagManager.class).getEntity(Tags.PLAYER);
 
         if (doubleShot_cm.has(playerEntity)) {
-            DoubleShot doubleShot = doubleShot_cm.get(playerEntity);
-            doubleShot.delay = 0; //TODO
-            //playerEntity.edit().remove(DoubleShot.class);
+            world.getSystem(DoubleShotExpirySystem.class).expire(playerEntity);
         }
         if (shield_cm.has(playerEntity)) {
-            Shield shield = shield_cm.get(playerEntity);
-            shield.delay = 0; //TODO
-            //playerEntity.edit().remove(Shield.class);
+            world.getSystem(ShieldExpirySystem.class).expire(playerEntity);
         }
 
     }
@@ -17,30 +17,45 @@
 
 package de.fgerbig.spacepeng.systems;
 
+import com.artemis.Aspect;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
+import com.artemis.EntitySystem;
 import com.artemis.annotations.Wire;
-import com.artemis.managers.GroupManager;
-import com.artemis.systems.VoidEntitySystem;
-import com.artemis.utils.Bag;
-import com.artemis.utils.ImmutableBag;
-import com.badlogic.gdx.math.Circle;
-import com.badlogic.gdx.math.Intersector;
-import com.badlogic.gdx.math.Rectangle;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
 import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.assets.SoundKey;
+import de.fgerbig.spacepeng.collision.*;
 import de.fgerbig.spacepeng.components.*;
 import de.fgerbig.spacepeng.components.collision.CircleBounds;
+import de.fgerbig.spacepeng.components.collision.CollisionLayer;
 import de.fgerbig.spacepeng.components.collision.RectangleBounds;
 import de.fgerbig.spacepeng.components.powerup.Coin;
-import de.fgerbig.spacepeng.components.powerup.DoubleShot;
 import de.fgerbig.spacepeng.components.powerup.Shield;
 import de.fgerbig.spacepeng.events.EventManager;
+import de.fgerbig.spacepeng.global.CollisionLayers;
+import de.fgerbig.spacepeng.global.Const;
 import de.fgerbig.spacepeng.global.Events;
-import de.fgerbig.spacepeng.global.Groups;
+import de.fgerbig.spacepeng.particles.Effect;
 import de.fgerbig.spacepeng.services.EntityFactory;
+import de.fgerbig.spacepeng.utils.WorkerPool;
+
+public class CollisionSystem extends EntitySystem {
+
+    public enum BroadphaseMode {
+        BRUTE_FORCE,
+        GRID,
+        SWEEP_AND_PRUNE;
+    }
+
+    // a little larger than a regular alien, so most entities cover 1 to 4 cells
+    private static final float GRID_CELL_SIZE = 64;
+
+    private static final int WORKERS = Runtime.getRuntime().availableProcessors();
+    private static WorkerPool workers;
 
-public class CollisionSystem extends VoidEntitySystem {
     @Wire
     ComponentMapper<Position> pos_cm;
     @Wire
@@ -48,6 +63,10 @@ public class CollisionSystem extends VoidEntitySystem {
     @Wire
     ComponentMapper<RectangleBounds> rectb_cm;
     @Wire
+    ComponentMapper<CollisionLayer> layer_cm;
+    @Wire
+    ComponentMapper<FastMover> fast_cm;
+    @Wire
     ComponentMapper<Health> hlth_cm;
     @Wire
     ComponentMapper<IsAttacking> isAttacking_cm;
@@ -61,25 +80,62 @@ public class CollisionSystem extends VoidEntitySystem {
     ComponentMapper<Sprite> spr_cm;
 
     protected DirectorSystem ds;
+    protected ParticleSystem particleSystem;
+    protected DoubleShotExpirySystem doubleShotSystem;
+    protected ShieldExpirySystem shieldSystem;
     EventManager eventManager;
 
-    private Bag<CollisionPair> collisionPairs;
+    // collision rules, handlers indexed by rule id (derived from the layer bit index of both entities)
+    private CollisionHandler[] rules;
+
+    // collidable entities of the current frame
+    private Boxes boxes;
+    private Broadphase broadphase;
+    private BroadphaseMode broadphaseMode = BroadphaseMode.GRID;
 
+    // detected collisions, resolved after detection
+    private CollisionBuffer collisions;
+
+    // parallel detection, one detector per thread
+    private boolean parallelDetection = Gdx.app.getType() == Application.ApplicationType.Desktop && WORKERS > 1;
+    private int parallelThreshold = 1000;
+    private Detector[] detectors;
+    private DetectionTask[] tasks;
+
+    // entity ids already resolved in the current frame (deleted or killed)
+    private int[] resolvedStamps = new int[128];
+    private int frame;
+
+    @SuppressWarnings("unchecked")
     public CollisionSystem(EventManager eventManager) {
+        super(Aspect.getAspectForAll(Position.class, CollisionLayer.class).one(CircleBounds.class, RectangleBounds.class));
         this.eventManager = eventManager;
     }
 
     @Override
     public void initialize() {
         ds = world.getSystem(DirectorSystem.class);
-
-        collisionPairs = new Bag<CollisionPair>();
+        particleSystem = world.getSystem(ParticleSystem.class);
+        doubleShotSystem = world.getSystem(DoubleShotExpirySystem.class);
+        shieldSystem = world.getSystem(ShieldExpirySystem.class);
+
+        rules = new CollisionHandler[CollisionLayers.COUNT * CollisionLayers.COUNT];
+        boxes = new Boxes();
+        collisions = new CollisionBuffer(64);
+
+        detectors = new Detector[WORKERS];
+        tasks = new DetectionTask[WORKERS];
+        for (int i = 0; WORKERS > i; i++) {
+            detectors[i] = new Detector();
+            tasks[i] = new DetectionTask(i);
+        }
+        setBroadphaseMode(broadphaseMode);
 
         // player shoots alien
-        collisionPairs.add(new CollisionPair(Groups.PLAYER_SHOTS, Groups.ALIENS, new CollisionHandler() {
+        register(CollisionLayers.PLAYER_SHOT, CollisionLayers.ALIEN, new CollisionHandler() {
             @Override
             public void handleCollision(Entity playerShot, Entity alien) {
-                playerShot.deleteFromWorld();
+                delete(playerShot);
 
                 int bonusForAlienIsAttacking = isAttacking_cm.has(alien)?1:0;
                 boolean boss = hlth_cm.has(alien); // only bosses have health
@@ -101,32 +157,30 @@ public class CollisionSystem extends VoidEntitySystem {
                         ds.increaseScore(25 + bonusForAlienIsAttacking * 25);
                         EntityFactory.createAlienExplosion(world, alienPos.x, alienPos.y);
                     }
-                    alien.deleteFromWorld();
+                    delete(alien);
                     eventManager.submit(Events.CHECK_IS_LEVEL_CLEAR, this);
 
                 } else {
                     if (boss) {
-                        SpacePeng.soundManager.play(SoundKey.ALIEN_BOSS_HIT);
+                        SpacePeng.soundManager.post(SoundKey.ALIEN_BOSS_HIT);
                     }
                 }
             }
-        }));
+        });
 
         // player shoots alien shot
-        collisionPairs.add(new CollisionPair(Groups.PLAYER_SHOTS, Groups.ALIEN_SHOTS, new CollisionHandler() {
+        register(CollisionLayers.PLAYER_SHOT, CollisionLayers.ALIEN_SHOT, new CollisionHandler() {
             @Override
             public void handleCollision(Entity playerShot, Entity alienShot) {
                 Position alienShotPos = pos_cm.get(alienShot);
-                for (int i = 0; i < 10; i++) {
-                    EntityFactory.createParticle(world, alienShotPos.x, alienShotPos.y);
-                }
+                particleSystem.emit(Effect.SHOT_IMPACT, alienShotPos.x, alienShotPos.y);
 
-                alienShot.deleteFromWorld();
+                delete(alienShot);
             }
-        }));
+        });
 
         // player collides alien
-        collisionPairs.add(new CollisionPair(Groups.PLAYER, Groups.ALIENS, new CollisionHandler() {
+        register(CollisionLayers.PLAYER, CollisionLayers.ALIEN, new CollisionHandler() {
             @Override
             public void handleCollision(Entity player, Entity alien) {
                 float health = 0;
@@ -141,7 +195,7 @@ public class CollisionSystem extends VoidEntitySystem {
                     Position alienPos = pos_cm.get(alien);
                     EntityFactory.createAlienExplosion(world, alienPos.x, alienPos.y);
                     ds.increaseScore(25);
-                    alien.deleteFromWorld();
+                    delete(alien);
                     eventManager.submit(Events.CHECK_IS_LEVEL_CLEAR, this);
                 }
 
@@ -153,19 +207,20 @@ public class CollisionSystem extends VoidEntitySystem {
 
                 Position playerPos = pos_cm.get(player);
                 EntityFactory.createPlayerExplosion(world, playerPos.x, playerPos.y);
+                resolved(player);
 
                 eventManager.submit(Events.PLAYER_KILLED, this);
             }
-        }));
+        });
 
         // player collides coin
-        collisionPairs.add(new CollisionPair(Groups.PLAYER, Groups.COINS, new CollisionHandler() {
+        register(CollisionLayers.PLAYER, CollisionLayers.COIN, new CollisionHandler() {
             @Override
             public void handleCollision(Entity player, Entity coin) {
                 float health = 0;
 
-                coin.deleteFromWorld();
-                SpacePeng.soundManager.play(SoundKey.BOING);
+                delete(coin);
+                SpacePeng.soundManager.post(SoundKey.BOING);
 
                 switch (coin_cm.get(coin).type) {
                     case EXTRALIFE:
@@ -173,32 +228,22 @@ public class CollisionSystem extends VoidEntitySystem {
                         p.lives += 1;
                         break;
                     case DOUBLESHOT:
-                        DoubleShot doubleShot = new DoubleShot();
-                        doubleShot.delay = 5.0f;
-                        player.edit().add(doubleShot);
+                        doubleShotSystem.add(player, 5.0f);
                         break;
                     case SHIELD:
-                        Shield shield = new Shield();
-                        shield.delay = 5.0f;
-                        final Sprite sprite = spr_cm.get(player);
-                        sprite.name = Player.SPRITE_NAME_SHIELD;
-                        shield.onExpiry = new Runnable() {
-                            @Override
-                            public void run() {
-                                sprite.name = Player.SPRITE_NAME;
-                            }
-                        };
-                        player.edit().add(shield);
+                        // the shield system restores the sprite on expiry
+                        shieldSystem.add(player, 5.0f);
+                        spr_cm.get(player).regionId = SpacePeng.spriteRegistry.getId(Player.SPRITE_NAME_SHIELD);
                         break;
                 }
             }
-        }));
+        });
 
         // alien shoots player
-        collisionPairs.add(new CollisionPair(Groups.ALIEN_SHOTS, Groups.PLAYER, new CollisionHandler() {
+        register(CollisionLayers.ALIEN_SHOT, CollisionLayers.PLAYER, new CollisionHandler() {
             @Override
             public void handleCollision(Entity alienShot, Entity player) {
-                alienShot.deleteFromWorld();
+                delete(alienShot);
 
                 // if player has a shield, don't kill him
                 if (shield_cm.has(player)) {
@@ -207,90 +252,232 @@ public class CollisionSystem extends VoidEntitySystem {
 
                 Position playerPos = pos_cm.get(player);
                 EntityFactory.createPlayerExplosion(world, playerPos.x, playerPos.y);
+                resolved(player);
 
                 eventManager.submit(Events.PLAYER_KILLED, this);
             }
-        }));
+        });
+    }
+
+    /**
+     * Registers the handler for collisions of entities of the two given layers.
+     * The handler is called with the entity of the first layer first.
+     */
+    protected void register(int categoryA, int categoryB, CollisionHandler handler) {
+        rules[ruleId(categoryA, categoryB)] = handler;
     }
 
     @Override
-    protected void processSystem() {
-        for (int i = 0; collisionPairs.size() > i; i++) {
-            collisionPairs.get(i).checkForCollisions();
+    protected boolean checkProcessing() {
+        return true;
+    }
+
+    public BroadphaseMode getBroadphaseMode() {
+        return broadphaseMode;
+    }
+
+    public void setBroadphaseMode(BroadphaseMode mode) {
+        this.broadphaseMode = mode;
+        switch (mode) {
+            case BRUTE_FORCE:
+                broadphase = new BruteForceBroadphase();
+                break;
+            case GRID:
+                broadphase = new GridBroadphase(Const.WIDTH, Const.HEIGHT, GRID_CELL_SIZE);
+                break;
+            case SWEEP_AND_PRUNE:
+                broadphase = new SweepAndPruneBroadphase();
+                break;
         }
     }
 
-    private class CollisionPair {
-        private ImmutableBag<Entity> groupEntitiesA;
-        private ImmutableBag<Entity> groupEntitiesB;
-        private CollisionHandler handler;
+    /**
+     * Turns parallel detection on or off, on by default on desktop only. Tests turn it on to compare both modes.
+     */
+    public void setParallelDetection(boolean parallelDetection) {
+        this.parallelDetection = parallelDetection;
+    }
+
+    /**
+     * Below this number of collidable entities detection always runs on the calling thread,
+     * because handing work to other threads costs more than it saves.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
 
-        public CollisionPair(String group1, String group2, CollisionHandler handler) {
-            groupEntitiesA = world.getManager(GroupManager.class).getEntities(group1);
-            groupEntitiesB = world.getManager(GroupManager.class).getEntities(group2);
-            this.handler = handler;
+    @Override
+    protected void processEntities(IntBag entities) {
+        collect(entities);
+
+        // detection: all interacting pairs of all layers in one broadphase pass
+        collisions.clear();
+        if (parallelDetection && boxes.size >= parallelThreshold && broadphase instanceof PartitionedBroadphase) {
+            detectParallel((PartitionedBroadphase) broadphase);
+        } else {
+            detectors[0].buffer.clear();
+            broadphase.findPairs(boxes, detectors[0]);
+            collisions.addAll(detectors[0].buffer);
         }
+        // same order of resolution, no matter how the collisions were found
+        collisions.sort();
 
-        public void checkForCollisions() {
-            for (int a = 0; groupEntitiesA.size() > a; a++) {
-                for (int b = 0; groupEntitiesB.size() > b; b++) {
-                    Entity entityA = groupEntitiesA.get(a);
-                    Entity entityB = groupEntitiesB.get(b);
-                    if (collisionExists(entityA, entityB)) {
-                        handler.handleCollision(entityA, entityB);
-                    }
-                }
+        // resolution
+        resolve();
+    }
+
+    private void collect(IntBag entities) {
+        boxes.clear();
+
+        for (int i = 0, s = entities.size(); s > i; i++) {
+            int id = entities.get(i);
+            Entity e = world.getEntity(id);
+            CollisionLayer layer = layer_cm.get(e);
+            if (layer.category == CollisionLayers.NONE) {
+                continue; // currently not collidable
+            }
+
+            Position p = pos_cm.get(e);
+            float previousX = p.x, previousY = p.y;
+            if (fast_cm.has(e)) {
+                // check the whole step from the previous to the current position
+                FastMover fastMover = fast_cm.get(e);
+                previousX = fastMover.previousX;
+                previousY = fastMover.previousY;
+            }
+
+            if (circb_cm.has(e)) {
+                boxes.addCircle(id, layer.category, layer.mask, p.x, p.y, previousX, previousY, circb_cm.get(e).radius);
+            } else {
+                RectangleBounds rb = rectb_cm.get(e);
+                boxes.addRectangle(id, layer.category, layer.mask, p.x, p.y, previousX, previousY, rb.width / 2, rb.height / 2);
             }
         }
+    }
+
+    private void detectParallel(PartitionedBroadphase broadphase) {
+        int partitions = detectors.length;
+        broadphase.prepare(boxes, partitions);
+
+        int partitionSize = (boxes.size + partitions - 1) / partitions;
+        for (int i = 0; partitions > i; i++) {
+            DetectionTask task = tasks[i];
+            task.broadphase = broadphase;
+            task.from = Math.min(i * partitionSize, boxes.size);
+            task.to = Math.min(task.from + partitionSize, boxes.size);
+            detectors[i].buffer.clear();
+        }
+
+        // the same tasks every frame; returns when all of them are done, even if interrupted
+        getWorkers().runAll(tasks, partitions);
+
+        // merge the hits of all threads
+        for (int i = 0; partitions > i; i++) {
+            collisions.addAll(detectors[i].buffer);
+        }
+    }
+
+    private static synchronized WorkerPool getWorkers() {
+        if (workers == null) {
+            // the calling thread runs the first partition
+            workers = new WorkerPool("collision", WORKERS - 1);
+        }
+        return workers;
+    }
+
+    /**
+     * Stops the detection threads. Called when the game is disposed.
+     */
+    public static synchronized void shutdownWorkers() {
+        if (workers != null) {
+            workers.shutdown();
+            workers = null;
+        }
+    }
+
+    private static int ruleId(int categoryA, int categoryB) {
+        return Integer.numberOfTrailingZeros(categoryA) * CollisionLayers.COUNT + Integer.numberOfTrailingZeros(categoryB);
+    }
 
-        private boolean collisionExists(Entity e1, Entity e2) {
+    private void resolve() {
+        frame++;
 
-            if (e1 == null || e2 == null) {
-                return false;
+        for (int i = 0; collisions.size() > i; i++) {
+            int idA = collisions.getEntityIdA(i);
+            int idB = collisions.getEntityIdB(i);
+
+            // an entity deleted by an earlier collision can't collide anymore
+            if (isResolved(idA) || isResolved(idB)) {
+                continue;
             }
 
-            Position p1 = pos_cm.getSafe(e1);
-            Position p2 = pos_cm.getSafe(e2);
+            rules[collisions.getRuleId(i)].handleCollision(world.getEntity(idA), world.getEntity(idB));
+        }
+    }
+
+    /**
+     * Marks the entity as done for this frame, it will not take part in further collisions.
+     */
+    protected void resolved(Entity e) {
+        int id = e.getId();
+        if (id >= resolvedStamps.length) {
+            int[] newStamps = new int[Math.max(id + 1, resolvedStamps.length * 2)];
+            System.arraycopy(resolvedStamps, 0, newStamps, 0, resolvedStamps.length);
+            resolvedStamps = newStamps;
+        }
+        resolvedStamps[id] = frame;
+    }
+
+    protected boolean isResolved(int id) {
+        return id < resolvedStamps.length && resolvedStamps[id] == frame;
+    }
+
+    protected void delete(Entity e) {
+        resolved(e);
+        e.deleteFromWorld();
+    }
 
-            if (p1 == null || p2 == null) {
-                return false;
+    /**
+     * Checks candidate pairs and records the collisions found. Reads the boxes and the rules only,
+     * so one detector per thread may run at the same time.
+     */
+    private class Detector implements Broadphase.PairHandler {
+        final CollisionBuffer buffer = new CollisionBuffer(64);
+
+        @Override
+        public void handlePair(int a, int b) {
+            int ruleId = ruleId(boxes.categories[a], boxes.categories[b]);
+            boolean swap = false;
+            if (rules[ruleId] == null) {
+                ruleId = ruleId(boxes.categories[b], boxes.categories[a]);
+                swap = true;
+            }
+            if (rules[ruleId] == null) {
+                return; // no rule for this pair of layers
             }
 
-            // circle, circle
-            if (circb_cm.has(e1) && circb_cm.has(e2)) {
-                CircleBounds cb1 = circb_cm.get(e1);
-                CircleBounds cb2 = circb_cm.get(e2);
-                Circle c1 = new Circle(p1.x, p1.y, cb1.radius);
-                Circle c2 = new Circle(p2.x, p2.y, cb2.radius);
-                return Intersector.overlaps(c1, c2);
-                // circle, rectangle
-            } else if (circb_cm.has(e1) && rectb_cm.has(e2)) {
-                CircleBounds cb1 = circb_cm.get(e1);
-                RectangleBounds rb2 = rectb_cm.get(e2);
-                Circle c1 = new Circle(p1.x, p1.y, cb1.radius);
-                Rectangle r2 = new Rectangle(p2.x - rb2.width / 2, p2.y - rb2.height / 2, rb2.width, rb2.height);
-                return Intersector.overlaps(c1, r2);
-                // rectangle, circle
-            } else if (rectb_cm.has(e1) && circb_cm.has(e2)) {
-                RectangleBounds rb1 = rectb_cm.get(e1);
-                CircleBounds cb2 = circb_cm.get(e2);
-                Rectangle r1 = new Rectangle(p1.x - rb1.width / 2, p1.y - rb1.height / 2, rb1.width, rb1.height);
-                Circle c2 = new Circle(p2.x, p2.y, cb2.radius);
-                return Intersector.overlaps(c2, r1);
-                // rectangle, rectangle
-            } else if (rectb_cm.has(e1) && rectb_cm.has(e2)) {
-                RectangleBounds rb1 = rectb_cm.get(e1);
-                RectangleBounds rb2 = rectb_cm.get(e2);
-                Rectangle r1 = new Rectangle(p1.x - rb1.width / 2, p1.y - rb1.height / 2, rb1.width, rb1.height);
-                Rectangle r2 = new Rectangle(p2.x - rb2.width / 2, p2.y - rb2.height / 2, rb2.width, rb2.height);
-                return Intersector.overlaps(r1, r2);
+            if (Narrowphase.collides(boxes, a, b)) {
+                buffer.add(boxes.ids[swap ? b : a], boxes.ids[swap ? a : b], ruleId);
             }
+        }
+    }
+
+    private class DetectionTask implements Runnable {
+        final int partition;
+        PartitionedBroadphase broadphase;
+        int from, to;
+
+        DetectionTask(int partition) {
+            this.partition = partition;
+        }
 
-            return false;
+        @Override
+        public void run() {
+            broadphase.findPairs(boxes, partition, from, to, detectors[partition]);
         }
     }
 
-    private interface CollisionHandler {
+    protected interface CollisionHandler {
         void handleCollision(Entity a, Entity b);
     }
 
@@ -17,6 +17,7 @@
 
 package de.fgerbig.spacepeng.systems;
 
+import com.artemis.Archetype;
 import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
@@ -24,23 +25,27 @@ import com.artemis.managers.GroupManager;
 import com.artemis.managers.TagManager;
 import com.artemis.systems.VoidEntitySystem;
 import com.artemis.utils.ImmutableBag;
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.math.MathUtils;
 import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.components.Invisible;
 import de.fgerbig.spacepeng.components.Player;
 import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.Velocity;
+import de.fgerbig.spacepeng.components.collision.CollisionLayer;
 import de.fgerbig.spacepeng.events.Event;
 import de.fgerbig.spacepeng.events.EventManager;
 import de.fgerbig.spacepeng.events.reflection.Handles;
+import de.fgerbig.spacepeng.global.CollisionLayers;
 import de.fgerbig.spacepeng.global.Const;
 import de.fgerbig.spacepeng.global.Events;
 import de.fgerbig.spacepeng.global.Groups;
 import de.fgerbig.spacepeng.global.Tags;
-import de.fgerbig.spacepeng.path.AlienBossAttackPathFunction;
-import de.fgerbig.spacepeng.path.TwoAlienBossesAttackPathFunction;
+import de.fgerbig.spacepeng.particles.Effect;
 import de.fgerbig.spacepeng.screens.MenuScreen;
+import de.fgerbig.spacepeng.services.Archetypes;
 import de.fgerbig.spacepeng.services.EntityFactory;
+import de.fgerbig.spacepeng.services.LevelLayout;
 import de.fgerbig.spacepeng.services.Profile;
 
 import java.util.LinkedList;
@@ -48,6 +53,13 @@ import java.util.Queue;
 
 public class DirectorSystem extends VoidEntitySystem {
 
+    // peak numbers of things in flight at the same time
+    private static final int PREWARM_PLAYER_SHOTS = 16;
+    private static final int PREWARM_ALIEN_SHOTS_PER_ALIEN = 3; // a multi shot
+    private static final int PREWARM_ALIEN_SHOTS_PER_BOSS = 12;
+    private static final int PREWARM_ALIEN_EXPLOSIONS = 10; // aliens dying while their particles are still alive
+    private static final int PREWARM_COINS = 2;
+
     abstract class QueueEvent {
         float delay;
 
@@ -66,6 +78,8 @@ public class DirectorSystem extends VoidEntitySystem {
     ComponentMapper<Player> ply_cm;
     @Wire
     ComponentMapper<Invisible> inv_cm;
+    @Wire
+    ComponentMapper<CollisionLayer> layer_cm;
 
     EventManager eventManager;
     Queue<QueueEvent> queue;
@@ -78,6 +92,7 @@ public class DirectorSystem extends VoidEntitySystem {
     HudRenderSystem hud;
     PlayerInputSystem input;
     AlienBehaviourSystem alienBehaviour;
+    ParticleSystem particles;
 
     protected int level;
 
@@ -97,6 +112,7 @@ public class DirectorSystem extends VoidEntitySystem {
         hud = world.getSystem(HudRenderSystem.class);
         input = world.getSystem(PlayerInputSystem.class);
         alienBehaviour = world.getSystem(AlienBehaviourSystem.class);
+        particles = world.getSystem(ParticleSystem.class);
 
         level = profile.getLastPlayedLevel(); // set to one at (re)start
         input.setFireBlockedForSeconds(2.5f);
@@ -110,6 +126,7 @@ public class DirectorSystem extends VoidEntitySystem {
             @Override
             void run() {
                 hud.overlay = HudRenderSystem.Overlay.LEVEL;
+                prewarm(level);
             }
         });
 
@@ -136,75 +153,50 @@ public class DirectorSystem extends VoidEntitySystem {
     }
 
     protected void setupLevel(int level) {
-        int alienCount = 0;
+        LevelLayout layout = LevelLayout.get(level);
 
         // construct level
-        switch (level % 10) {
-            case 1:
-                alienCount += setupAliens(0, 0, 10, 3);
-                break;
-            case 2:
-                alienCount += setupAliens(0, 0, 10, 4);
-                break;
-            case 3:
-                EntityFactory.createAlienBoss(world, Const.WIDTH / 2, Const.HEIGHT * 2 / 3, 10, AlienBossAttackPathFunction.id);
-                alienCount += 1;
-                break;
-            case 4:
-                alienCount += setupAliens(0, 0, 10, 3);
-                break;
-            case 5:
-                alienCount += setupAliens(0, 0, 10, 4);
-                break;
-            case 6:
-                alienCount += setupAliens(0, 2, 3, 1);
-                alienCount += setupAliens(7, 2, 3, 1);
-                EntityFactory.createAlienBoss(world, Const.WIDTH / 2, Const.HEIGHT * 2 / 3, 10, AlienBossAttackPathFunction.id);
-                alienCount += 1;
-                break;
-            case 7:
-                alienCount += setupAliens(0, 0, 10, 3);
-                break;
-            case 8:
-                alienCount += setupAliens(0, 0, 10, 4);
-                break;
-            case 9:
-                alienCount += setupAliens(0, 0, 3, 3);
-                alienCount += setupAliens(7, 0, 3, 3);
-                EntityFactory.createAlienBoss(world, Const.WIDTH / 2, Const.HEIGHT * 2 / 3, 10, AlienBossAttackPathFunction.id);
-                alienCount += 1;
-                break;
-            case 0:
-                alienCount += setupAliens(3, 0, 4, 3);
-                EntityFactory.createAlienBoss(world, Const.WIDTH * 1 / 4, Const.HEIGHT * 2 / 3, 10, TwoAlienBossesAttackPathFunction.id);
-                EntityFactory.createAlienBoss(world, Const.WIDTH * 3 / 4, Const.HEIGHT * 2 / 3, 10, TwoAlienBossesAttackPathFunction.id);
-                alienCount += 2;
-                break;
+        for (int i = 0; layout.getAlienCount() > i; i++) {
+            EntityFactory.createAlien(world, layout.getAlienX(i), layout.getAlienY(i), layout.getAlienGroup(i));
+        }
+        for (int i = 0; layout.getBossCount() > i; i++) {
+            EntityFactory.createAlienBoss(world, layout.getBossX(i), layout.getBossY(i), 10, layout.getBossPath(i));
         }
 
-        alienBehaviour.setLevelParameters(level, alienCount);
+        alienBehaviour.setLevelParameters(level, layout.getAlienCount() + layout.getBossCount());
     }
 
-    protected int setupAliens(int x, int y, int width, int height) {
-        int aliens = 0;
-
-        final int dx = 60;
-        final int dy = 60;
-
-        int[][] groupId = {
-                {9, 1, 9, 7, 7, 8, 8, 10, 2, 10},
-                {1, 1, 1, 5, 7, 8, 6, 2, 2, 2},
-                {9, 3, 5, 5, 5, 6, 6, 6, 4, 10},
-                {3, 3, 3, 12, 11, 11, 12, 4, 4, 4}};
+    /**
+     * Fills the entity id free list and the particle store for the peak load of the given level.
+     * Done while the level overlay is shown, so neither grows during the wave. Components are
+     * not pooled, the build doesn't weave {@code @PooledWeaver}.
+     */
+    protected void prewarm(int level) {
+        LevelLayout layout = LevelLayout.get(level);
+        int aliens = layout.getAlienCount();
+        int bosses = layout.getBossCount();
+
+        int shots = PREWARM_PLAYER_SHOTS + aliens * PREWARM_ALIEN_SHOTS_PER_ALIEN + bosses * PREWARM_ALIEN_SHOTS_PER_BOSS;
+
+        Archetypes archetypes = world.getManager(Archetypes.class);
+        prewarm(archetypes.playerShot, shots);
+        prewarm(archetypes.alien, aliens);
+        prewarm(archetypes.alienBoss, bosses);
+        prewarm(archetypes.coin, PREWARM_COINS);
+
+        particles.reserve(particles.getParticleCount(Effect.PLAYER_EXPLOSION)
+                + bosses * particles.getParticleCount(Effect.ALIEN_BOSS_EXPLOSION)
+                + Math.min(aliens, PREWARM_ALIEN_EXPLOSIONS) * particles.getParticleCount(Effect.ALIEN_EXPLOSION)
+                + PREWARM_PLAYER_SHOTS * particles.getParticleCount(Effect.SHOT_IMPACT));
+    }
 
-        for (int ix = x; ix < x + width; ix++) {
-            for (int iy = y; iy < y + height; iy++) {
-                EntityFactory.createAlien(world, (Const.WIDTH - (9 * dx)) / 2 + ix * dx, Const.HEIGHT - dy * 3 / 2 - iy * dy, groupId[iy][ix]);
-                aliens++;
-            }
+    /**
+     * Creates and instantly deletes entities, leaving their ids for reuse.
+     */
+    private void prewarm(Archetype archetype, int count) {
+        for (int i = 0; count > i; i++) {
+            world.createEntity(archetype).deleteFromWorld();
         }
-
-        return aliens;
     }
 
     @Override
@@ -242,13 +234,15 @@ public class DirectorSystem extends VoidEntitySystem {
     }
 
     protected void setPlayerUncollidable() {
-        GroupManager gm = world.getManager(GroupManager.class);
-        gm.removeFromAllGroups(playerEntity);
+        CollisionLayer layer = layer_cm.get(playerEntity);
+        layer.category = CollisionLayers.NONE;
+        layer.mask = CollisionLayers.NONE;
     }
 
     protected void setPlayerCollidable() {
-        GroupManager gm = world.getManager(GroupManager.class);
-        gm.add(playerEntity, Groups.PLAYER);
+        CollisionLayer layer = layer_cm.get(playerEntity);
+        layer.category = CollisionLayers.PLAYER;
+        layer.mask = CollisionLayers.PLAYER_MASK;
     }
 
     public void increaseScore(int score) {
@@ -336,7 +330,13 @@ public class DirectorSystem extends VoidEntitySystem {
             queue.add(new QueueEvent(10) {
                 @Override
                 void run() {
-                    SpacePeng.currentGame.setScreen(new MenuScreen(SpacePeng.currentGame));
+                    // on the render thread, the simulation may run on its own
+                    Gdx.app.postRunnable(new Runnable() {
+                        @Override
+                        public void run() {
+                            SpacePeng.currentGame.setScreen(new MenuScreen(SpacePeng.currentGame));
+                        }
+                    });
                 }
             });
 
@@ -376,6 +376,7 @@ public class DirectorSystem extends VoidEntitySystem {
                 void run() {
                     level += 1;
                     hud.overlay = HudRenderSystem.Overlay.LEVEL;
+                    prewarm(level);
                 }
             });
 
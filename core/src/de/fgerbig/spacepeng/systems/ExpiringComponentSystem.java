@@ -18,39 +18,118 @@
 package de.fgerbig.spacepeng.systems;
 
 import com.artemis.Aspect;
-import com.artemis.Component;
+import com.artemis.ComponentMapper;
 import com.artemis.Entity;
-import com.artemis.systems.EntityProcessingSystem;
-import com.artemis.utils.Bag;
+import com.artemis.EntitySystem;
+import com.artemis.utils.IntBag;
 import de.fgerbig.spacepeng.components.ExpiringComponent;
+import de.fgerbig.spacepeng.utils.DeadlineQueue;
 
-public class ExpiringComponentSystem extends EntityProcessingSystem {
+import java.util.Arrays;
 
-    public ExpiringComponentSystem() {
-        // interested in all entities
-        super(Aspect.getAspectForAll());
+/**
+ * Removes an expiring component of one type when its delay has passed.
+ * <p/>
+ * Entities are scheduled by deadline when the component is added, so a tick
+ * only touches the entities whose components are due.
+ *
+ * @param <T> the concrete component type, subclasses handle one type each
+ */
+public abstract class ExpiringComponentSystem<T extends ExpiringComponent> extends EntitySystem {
+    private final Class<T> type;
+    protected ComponentMapper<T> mapper;
+
+    private final DeadlineQueue queue = new DeadlineQueue();
+    // per entity id: deadline of the scheduled expiry, NaN if none; queue entries with another deadline are stale
+    private float[] deadlineOfId = new float[64];
+    private float time;
+
+    @SuppressWarnings("unchecked")
+    public ExpiringComponentSystem(Class<T> type) {
+        super(Aspect.getAspectForAll(type));
+        this.type = type;
+        Arrays.fill(deadlineOfId, Float.NaN);
     }
 
     @Override
-    protected void process(Entity e) {
-        // check all components of the entity
-        for (Component component : e.getComponents(new Bag<Component>())) {
-
-            if (component instanceof ExpiringComponent) {
-                // component is an expiring component
-                ExpiringComponent expiringComponent = (ExpiringComponent) component;
-                // subtract passed time from delay
-                expiringComponent.delay -= world.getDelta();
-
-                // if component has expired, remove it
-                if (expiringComponent.delay <= 0) {
-                    if (expiringComponent.onExpiry != null) {
-                        expiringComponent.onExpiry.run();
-                    }
-                    e.edit().remove(expiringComponent);
-                }
+    protected void initialize() {
+        mapper = world.getMapper(type);
+    }
+
+    /**
+     * Adds the component to the entity, or restarts the delay of the one it already has.
+     */
+    public T add(Entity e, float delay) {
+        T component = e.edit().create(type);
+        component.delay = delay;
+
+        int id = e.getId();
+        if (id < deadlineOfId.length && !Float.isNaN(deadlineOfId[id])) {
+            schedule(id, time + delay);
+        }
+        // otherwise scheduled when the entity is inserted
+        return component;
+    }
+
+    /**
+     * Lets the component of the entity expire in the next tick.
+     */
+    public void expire(Entity e) {
+        int id = e.getId();
+        if (id < deadlineOfId.length && !Float.isNaN(deadlineOfId[id])) {
+            schedule(id, time);
+        }
+    }
+
+    @Override
+    protected void processEntities(IntBag entities) {
+        time += world.getDelta();
+
+        while (!queue.isEmpty() && queue.peekDeadline() <= time) {
+            float deadline = queue.peekDeadline();
+            int id = queue.poll();
+            if (deadlineOfId[id] != deadline) {
+                continue; // rescheduled or removed meanwhile
             }
+
+            deadlineOfId[id] = Float.NaN;
+            Entity e = world.getEntity(id);
+            expired(e, mapper.get(e));
         }
+    }
+
+    /**
+     * Called when the component has expired, removes it.
+     */
+    protected void expired(Entity e, T component) {
+        e.edit().remove(component);
+    }
 
+    @Override
+    protected boolean checkProcessing() {
+        return true;
+    }
+
+    @Override
+    protected void inserted(Entity e) {
+        schedule(e.getId(), time + mapper.get(e).delay);
+    }
+
+    @Override
+    protected void removed(Entity e) {
+        int id = e.getId();
+        if (id < deadlineOfId.length) {
+            deadlineOfId[id] = Float.NaN;
+        }
+    }
+
+    private void schedule(int id, float deadline) {
+        if (id >= deadlineOfId.length) {
+            int oldLength = deadlineOfId.length;
+            deadlineOfId = Arrays.copyOf(deadlineOfId, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(deadlineOfId, oldLength, deadlineOfId.length, Float.NaN);
+        }
+        deadlineOfId[id] = deadline;
+        queue.add(id, deadline);
     }
 }
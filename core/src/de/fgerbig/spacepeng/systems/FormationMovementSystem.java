@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.Aspect;
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.EntitySystem;
+import com.artemis.annotations.Wire;
+import com.artemis.utils.IntBag;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Vector2;
+import de.fgerbig.spacepeng.components.BasePosition;
+import de.fgerbig.spacepeng.components.Formation;
+import de.fgerbig.spacepeng.components.PathMovement;
+import de.fgerbig.spacepeng.components.Position;
+import de.fgerbig.spacepeng.path.DefaultAlienMovementPathFunction;
+import de.fgerbig.spacepeng.path.PathFunction;
+import de.fgerbig.spacepeng.path.PathTable;
+
+import java.util.Arrays;
+
+/**
+ * Moves all formation members along the default movement path.
+ * <p/>
+ * The members share one phase, so the path is evaluated once per tick and its offset
+ * added to the cached base positions of all members in one loop.
+ */
+public class FormationMovementSystem extends EntitySystem {
+    @Wire
+    ComponentMapper<BasePosition> bpos_cm;
+    @Wire
+    ComponentMapper<Position> pos_cm;
+    @Wire
+    ComponentMapper<PathMovement> pmv_cm;
+
+    private final PathFunction path = new PathTable(new DefaultAlienMovementPathFunction(), PathMovementSystem.PATH_TABLE_SAMPLES);
+    private final Vector2 offset = new Vector2();
+
+    // phase of the path shared by all members
+    private float rad;
+
+    // members, unordered
+    private int size;
+    private int[] ids = new int[64];
+    private float[] baseX = new float[64];
+    private float[] baseY = new float[64];
+    private Position[] positions = new Position[64];
+    // per entity id: index of the member, -1 if none
+    private int[] indexOfId = new int[128];
+
+    @SuppressWarnings("unchecked")
+    public FormationMovementSystem() {
+        super(Aspect.getAspectForAll(BasePosition.class, Position.class, PathMovement.class, Formation.class));
+        Arrays.fill(indexOfId, -1);
+    }
+
+    /**
+     * Returns the phase of the formation, members leaving it continue from here.
+     */
+    public float getRad() {
+        return rad;
+    }
+
+    @Override
+    protected void processEntities(IntBag entities) {
+        path.getXY(rad, offset);
+        float offsetX = offset.x;
+        float offsetY = offset.y;
+
+        for (int i = 0; size > i; i++) {
+            Position position = positions[i];
+            position.x = baseX[i] + offsetX;
+            position.y = baseY[i] + offsetY;
+        }
+
+        rad += world.delta * PathMovementSystem.SPEED;
+        if (rad >= MathUtils.PI2) {
+            rad -= MathUtils.PI2;
+        }
+    }
+
+    @Override
+    protected boolean checkProcessing() {
+        return true;
+    }
+
+    @Override
+    protected void inserted(Entity e) {
+        int id = e.getId();
+        if (id >= indexOfId.length) {
+            int oldLength = indexOfId.length;
+            indexOfId = Arrays.copyOf(indexOfId, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(indexOfId, oldLength, indexOfId.length, -1);
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            baseX = Arrays.copyOf(baseX, size * 2);
+            baseY = Arrays.copyOf(baseY, size * 2);
+            positions = Arrays.copyOf(positions, size * 2);
+        }
+
+        // a new formation starts in the phase of its first member
+        if (size == 0) {
+            rad = pmv_cm.get(e).rad;
+        }
+
+        BasePosition basePosition = bpos_cm.get(e);
+        ids[size] = id;
+        baseX[size] = basePosition.x;
+        baseY[size] = basePosition.y;
+        positions[size] = pos_cm.get(e);
+        indexOfId[id] = size++;
+    }
+
+    @Override
+    protected void removed(Entity e) {
+        int id = e.getId();
+        if (id >= indexOfId.length || indexOfId[id] == -1) {
+            return;
+        }
+
+        // the last member takes the place of the removed one
+        int index = indexOfId[id];
+        int last = --size;
+        ids[index] = ids[last];
+        baseX[index] = baseX[last];
+        baseY[index] = baseY[last];
+        positions[index] = positions[last];
+        positions[last] = null;
+        indexOfId[ids[index]] = index;
+        indexOfId[id] = -1;
+    }
+}
@@ -22,14 +22,20 @@ import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
+import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.MathUtils;
+import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.components.Health;
 import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.Sprite;
+import de.fgerbig.spacepeng.render.IntLabel;
+import de.fgerbig.spacepeng.render.RenderSnapshot;
+import de.fgerbig.spacepeng.services.SpriteRegistry;
 
 public class HealthRenderSystem extends EntityProcessingSystem {
     @Wire
@@ -44,6 +50,18 @@ public class HealthRenderSystem extends EntityProcessingSystem {
     private TextureAtlas textureAtlas;
     private BitmapFont font;
 
+    // when set, labels are captured here instead of being drawn
+    private RenderSnapshot target;
+
+    private static final int BAR_WIDTH = 64;
+    private static final int BAR_HEIGHT = 6;
+    // a white texel of the sprite atlas stretched to bars, so bars batch with the sprites
+    private TextureAtlas.AtlasRegion pixel;
+
+    // "0%" to "100%" laid out centered around x = 0
+    private BitmapFontCache[] percentageCaches;
+    private boolean barMode;
+
     @SuppressWarnings("unchecked")
     public HealthRenderSystem(OrthographicCamera camera, SpriteBatch batch, TextureAtlas atlas, BitmapFont font) {
         super(Aspect.getAspectForAll(Position.class, Health.class));
@@ -56,6 +74,21 @@ public class HealthRenderSystem extends EntityProcessingSystem {
     @Override
     protected void initialize() {
         font.setUseIntegerPositions(false);
+
+        percentageCaches = new BitmapFontCache[101];
+        for (int i = 0; percentageCaches.length > i; i++) {
+            percentageCaches[i] = IntLabel.createCache(font, i + "%", 0, 0, true);
+        }
+
+        SpriteRegistry registry = SpacePeng.spriteRegistry;
+        pixel = registry.getRegion(registry.getId("pixel"));
+    }
+
+    /**
+     * Draws health as bars instead of percentages.
+     */
+    public void setBarMode(boolean barMode) {
+        this.barMode = barMode;
     }
 
     @Override
@@ -63,19 +96,55 @@ public class HealthRenderSystem extends EntityProcessingSystem {
         Position position = pos_cm.get(e);
         Health health = hlth_cm.get(e);
 
-        int percentage = MathUtils.round(health.health / health.maximumHealth * 100f);
+        int percentage = MathUtils.clamp(MathUtils.round(health.health / health.maximumHealth * 100f), 0, 100);
 
         float sy = 0;
 
         if (spr_cm.has(e)) {
             Sprite sprite = spr_cm.get(e);
-            TextureAtlas.AtlasRegion region = textureAtlas.findRegion(sprite.name);
+            TextureAtlas.AtlasRegion region = SpacePeng.spriteRegistry.getRegion(sprite.regionId);
             sy = region.getRegionHeight();
         }
 
-        String s = percentage + "%";
-        float x = position.x - font.getBounds(s).width / 2;
         float y = position.y + sy * 2 / 3;
-        font.draw(batch, s, x, y);
+        if (target != null) {
+            target.addLabel(position.x, y, percentage);
+        } else {
+            drawLabel(position.x, y, percentage);
+        }
+    }
+
+    /**
+     * Captures the labels of all entities into the snapshot instead of drawing them.
+     */
+    public void capture(RenderSnapshot snapshot) {
+        target = snapshot;
+        process();
+        target = null;
+    }
+
+    /**
+     * Draws the labels of a snapshot, touches no entities.
+     */
+    public void draw(RenderSnapshot snapshot) {
+        for (int i = 0; snapshot.labelCount > i; i++) {
+            drawLabel(snapshot.labelX[i], snapshot.labelY[i], snapshot.labelValues[i]);
+        }
+    }
+
+    private void drawLabel(float centerX, float y, int percentage) {
+        if (barMode) {
+            float x = centerX - BAR_WIDTH / 2;
+            float filled = BAR_WIDTH * percentage / 100f;
+            batch.setColor(0.5f, 0, 0, 1);
+            batch.draw(pixel, x + filled, y - BAR_HEIGHT, BAR_WIDTH - filled, BAR_HEIGHT);
+            batch.setColor(0, 1, 0, 1);
+            batch.draw(pixel, x, y - BAR_HEIGHT, filled, BAR_HEIGHT);
+            batch.setColor(Color.WHITE);
+        } else {
+            BitmapFontCache cache = percentageCaches[percentage];
+            cache.setPosition(centerX, y);
+            cache.draw(batch);
+        }
     }
 }
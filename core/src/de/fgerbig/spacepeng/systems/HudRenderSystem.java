@@ -25,6 +25,7 @@ import com.artemis.systems.VoidEntitySystem;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.BitmapFontCache;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
@@ -34,6 +35,8 @@ import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.Sprite;
 import de.fgerbig.spacepeng.global.Const;
 import de.fgerbig.spacepeng.global.Tags;
+import de.fgerbig.spacepeng.render.IntLabel;
+import de.fgerbig.spacepeng.render.RenderSnapshot;
 import de.fgerbig.spacepeng.services.Profile;
 
 import java.util.HashMap;
@@ -72,6 +75,17 @@ public class HudRenderSystem extends VoidEntitySystem {
     com.badlogic.gdx.graphics.g2d.Sprite overlay_level_done;
     com.badlogic.gdx.graphics.g2d.Sprite overlay_game_over;
 
+    // text laid out once, values laid out again when they change
+    private BitmapFontCache[] headingCaches;
+    private IntLabel livesLabel, scoreLabel, highScoreLabel, levelLabel;
+    private IntLabel levelOverlayLabel;
+    private BitmapFontCache[] newHighScoreCaches;
+    private IntLabel fpsLabel, activeEntitiesLabel, totalCreatedLabel, totalDeletedLabel;
+    private IntLabel renderCallsLabel, textureSwitchesLabel;
+
+    // batch statistics of the last frame
+    private int renderCalls, textureSwitches;
+
     public HudRenderSystem(OrthographicCamera camera, SpriteBatch batch, TextureAtlas textureAtlas, BitmapFont font, BitmapFont levelFont) {
         this.camera = camera;
         this.batch = batch;
@@ -100,50 +114,107 @@ public class HudRenderSystem extends VoidEntitySystem {
         overlay_game_over.setCenter(Const.WIDTH / 2, Const.HEIGHT / 2);
 
         font.setUseIntegerPositions(false);
+        layoutLabels();
     }
 
-    protected void drawQuarterCentered(SpriteBatch batch, String heading, int value, int column) {
-        float x, y;
-        x = column * Const.WIDTH / 4 + (Const.WIDTH / 4 - font.getBounds(heading).width) / 2;
-        y = Const.HEIGHT;
-        font.draw(batch, heading, x, y);
+    private void layoutLabels() {
+        String[] headings = {"Lives", "SCORE", "HIGH SCORE", "LEVEL"};
+        IntLabel[] values = new IntLabel[headings.length];
+        headingCaches = new BitmapFontCache[headings.length];
 
-        String s = String.valueOf(value);
-        x = column * Const.WIDTH / 4 + (Const.WIDTH / 4 - font.getBounds(s).width) / 2;
-        y -= 20;
-        font.draw(batch, s, x, y);
+        // one quarter of the top line per value
+        for (int column = 0; headings.length > column; column++) {
+            float centerX = column * Const.WIDTH / 4 + Const.WIDTH / 8;
+            headingCaches[column] = IntLabel.createCache(font, headings[column], centerX, Const.HEIGHT, true);
+            values[column] = new IntLabel(font, "", centerX, Const.HEIGHT - 20, true);
+        }
+        livesLabel = values[0];
+        scoreLabel = values[1];
+        highScoreLabel = values[2];
+        levelLabel = values[3];
+
+        float centerY = (Const.HEIGHT + levelFont.getCapHeight()) / 2;
+        levelOverlayLabel = new IntLabel(levelFont, "Level ", Const.WIDTH / 2, centerY, true);
+        newHighScoreCaches = new BitmapFontCache[]{
+                IntLabel.createCache(levelFont, "New", Const.WIDTH / 2, centerY + 40, true),
+                IntLabel.createCache(levelFont, "HighScore", Const.WIDTH / 2, centerY - 40, true)};
+
+        fpsLabel = new IntLabel(font, "FPS: ", 0, Const.HEIGHT - 40, false);
+        activeEntitiesLabel = new IntLabel(font, "Active entities: ", 0, Const.HEIGHT - 60, false);
+        totalCreatedLabel = new IntLabel(font, "Total created: ", 0, Const.HEIGHT - 80, false);
+        totalDeletedLabel = new IntLabel(font, "Total deleted: ", 0, Const.HEIGHT - 100, false);
+        renderCallsLabel = new IntLabel(font, "Render calls: ", 0, Const.HEIGHT - 120, false);
+        textureSwitchesLabel = new IntLabel(font, "Texture switches: ", 0, Const.HEIGHT - 140, false);
     }
 
     @Override
     protected void processSystem() {
-        String s;
-        float x, y;
+        Entity playerEntity = world.getManager(TagManager.class).getEntity(Tags.PLAYER);
+        Player player = ply_cm.get(playerEntity);
 
+        draw(player.lives, player.score, profile.getHighScore(), ds.getLevel(), overlay);
+
+        if (Const.DEV_MODE) {
+            activeEntitiesLabel.setValue(world.getEntityManager().getActiveEntityCount());
+            activeEntitiesLabel.draw(batch);
+            totalCreatedLabel.setValue((int) world.getEntityManager().getTotalCreated());
+            totalCreatedLabel.draw(batch);
+            totalDeletedLabel.setValue((int) world.getEntityManager().getTotalDeleted());
+            totalDeletedLabel.draw(batch);
+        }
+    }
+
+    /**
+     * Sets the batch statistics of the last frame, shown in dev mode.
+     */
+    public void setRenderStats(int renderCalls, int textureSwitches) {
+        this.renderCalls = renderCalls;
+        this.textureSwitches = textureSwitches;
+    }
+
+    /**
+     * Captures the hud values into the snapshot instead of drawing them.
+     */
+    public void capture(RenderSnapshot snapshot) {
         Entity playerEntity = world.getManager(TagManager.class).getEntity(Tags.PLAYER);
         Player player = ply_cm.get(playerEntity);
 
-        drawQuarterCentered(batch, "Lives", player.lives, 0);
-        drawQuarterCentered(batch, "SCORE", player.score, 1);
-        drawQuarterCentered(batch, "HIGH SCORE", profile.getHighScore(), 2);
-        drawQuarterCentered(batch, "LEVEL", ds.getLevel(), 3);
+        snapshot.lives = player.lives;
+        snapshot.score = player.score;
+        snapshot.highScore = profile.getHighScore();
+        snapshot.level = ds.getLevel();
+        snapshot.overlay = overlay;
+    }
+
+    /**
+     * Draws the hud of a snapshot, touches no entities.
+     */
+    public void draw(RenderSnapshot snapshot) {
+        draw(snapshot.lives, snapshot.score, snapshot.highScore, snapshot.level, snapshot.overlay);
+    }
+
+    private void draw(int lives, int score, int highScore, int level, Overlay overlay) {
+        for (int i = 0; headingCaches.length > i; i++) {
+            headingCaches[i].draw(batch);
+        }
+        livesLabel.setValue(lives);
+        livesLabel.draw(batch);
+        scoreLabel.setValue(score);
+        scoreLabel.draw(batch);
+        highScoreLabel.setValue(highScore);
+        highScoreLabel.draw(batch);
+        levelLabel.setValue(level);
+        levelLabel.draw(batch);
 
         switch (overlay) {
             case LEVEL:
-                s = "Level " + ds.getLevel();
-                x = (Const.WIDTH - levelFont.getBounds(s).width) / 2;
-                y = (Const.HEIGHT + levelFont.getBounds(s).height) / 2;
-                levelFont.draw(batch, s, x, y);
+                levelOverlayLabel.setValue(level);
+                levelOverlayLabel.draw(batch);
                 break;
 
             case NEW_HIGHSCORE:
-                s = "New";
-                x = (Const.WIDTH - levelFont.getBounds(s).width) / 2;
-                y = (Const.HEIGHT + levelFont.getBounds(s).height) / 2 + 40;
-                levelFont.draw(batch, s, x, y);
-                s = "HighScore";
-                x = (Const.WIDTH - levelFont.getBounds(s).width) / 2;
-                y = (Const.HEIGHT + levelFont.getBounds(s).height) / 2 - 40;
-                levelFont.draw(batch, s, x, y);
+                newHighScoreCaches[0].draw(batch);
+                newHighScoreCaches[1].draw(batch);
                 break;
 
             case READY:
@@ -160,10 +231,12 @@ public class HudRenderSystem extends VoidEntitySystem {
         }
 
         if (Const.DEV_MODE) {
-            font.draw(batch, "FPS: " + Gdx.graphics.getFramesPerSecond(), 0, Const.HEIGHT - 40);
-            font.draw(batch, "Active entities: " + world.getEntityManager().getActiveEntityCount(), 0, Const.HEIGHT - 60);
-            font.draw(batch, "Total created: " + world.getEntityManager().getTotalCreated(), 0, Const.HEIGHT - 80);
-            font.draw(batch, "Total deleted: " + world.getEntityManager().getTotalDeleted(), 0, Const.HEIGHT - 100);
+            fpsLabel.setValue(Gdx.graphics.getFramesPerSecond());
+            fpsLabel.draw(batch);
+            renderCallsLabel.setValue(renderCalls);
+            renderCallsLabel.draw(batch);
+            textureSwitchesLabel.setValue(textureSwitches);
+            textureSwitchesLabel.draw(batch);
         }
     }
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.Entity;
+import de.fgerbig.spacepeng.components.IsAttacking;
+import de.fgerbig.spacepeng.path.DefaultAlienMovementPathFunction;
+
+/**
+ * Ends the attack of an alien and sends it back to its default path.
+ */
+public class IsAttackingExpirySystem extends ExpiringComponentSystem<IsAttacking> {
+    private PathMovementSystem pathMovementSystem;
+
+    public IsAttackingExpirySystem() {
+        super(IsAttacking.class);
+    }
+
+    @Override
+    protected void initialize() {
+        super.initialize();
+        pathMovementSystem = world.getSystem(PathMovementSystem.class);
+    }
+
+    @Override
+    protected void expired(Entity e, IsAttacking isAttacking) {
+        super.expired(e, isAttacking);
+        pathMovementSystem.transition(e, DefaultAlienMovementPathFunction.id);
+    }
+}
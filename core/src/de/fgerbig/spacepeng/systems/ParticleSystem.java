@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.systems.VoidEntitySystem;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
+import com.badlogic.gdx.utils.Array;
+import de.fgerbig.spacepeng.SpacePeng;
+import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.particles.Effect;
+import de.fgerbig.spacepeng.particles.Emitter;
+import de.fgerbig.spacepeng.particles.Particles;
+import de.fgerbig.spacepeng.render.RenderSnapshot;
+import de.fgerbig.spacepeng.services.SpriteRegistry;
+
+/**
+ * Spawns, moves, fades and draws the particles of explosions and impacts.
+ * <p/>
+ * Particles are no entities; they live in one {@link Particles} store and are drawn
+ * by the {@link SpriteRenderSystem} together with the effects layer.
+ */
+public class ParticleSystem extends VoidEntitySystem {
+    private static final float EXPLOSION_R = 1;
+    private static final float EXPLOSION_G = 216 / 255f;
+    private static final float EXPLOSION_B = 0;
+
+    private final Particles particles = new Particles();
+
+    // emitters indexed by effect
+    private Emitter[][] effects;
+
+    @Override
+    protected void initialize() {
+        effects = new Emitter[Effect.values().length][];
+
+        register(Effect.PLAYER_EXPLOSION, flash(10f), burst(50));
+        register(Effect.ALIEN_EXPLOSION, flash(1.5f), burst(10));
+        register(Effect.ALIEN_BOSS_EXPLOSION, flash(10f), burst(50));
+        register(Effect.SHOT_IMPACT, burst(10));
+    }
+
+    private void register(Effect effect, Emitter... emitters) {
+        effects[effect.ordinal()] = emitters;
+    }
+
+    private Emitter flash(float scale) {
+        Emitter emitter = new Emitter(SpacePeng.spriteRegistry.getId("explosion"));
+        emitter.lifetime = 0.5f;
+        emitter.minScale = emitter.maxScale = scale;
+        emitter.alpha = 0.5f;
+        emitter.fadeOut = false;
+        setExplosionColor(emitter);
+        return emitter;
+    }
+
+    private Emitter burst(int count) {
+        Emitter emitter = new Emitter(SpacePeng.spriteRegistry.getId("particle"));
+        emitter.count = count;
+        emitter.maxSpeed = 400f;
+        emitter.lifetime = 1f;
+        emitter.minScale = 0.5f;
+        emitter.maxScale = 1f;
+        setExplosionColor(emitter);
+        return emitter;
+    }
+
+    private static void setExplosionColor(Emitter emitter) {
+        emitter.r = EXPLOSION_R;
+        emitter.g = EXPLOSION_G;
+        emitter.b = EXPLOSION_B;
+    }
+
+    /**
+     * Triggers the effect at the given position.
+     */
+    public void emit(Effect effect, float x, float y) {
+        Emitter[] emitters = effects[effect.ordinal()];
+        for (int i = 0; emitters.length > i; i++) {
+            emitters[i].emit(particles, x, y);
+        }
+    }
+
+    public int getParticleCount() {
+        return particles.size;
+    }
+
+    /**
+     * Returns the number of particles spawned by the effect.
+     */
+    public int getParticleCount(Effect effect) {
+        int count = 0;
+        Emitter[] emitters = effects[effect.ordinal()];
+        for (int i = 0; emitters.length > i; i++) {
+            count += emitters[i].count;
+        }
+        return count;
+    }
+
+    /**
+     * Makes room for the given number of live particles, so no burst grows the store.
+     */
+    public void reserve(int count) {
+        particles.ensureCapacity(count);
+    }
+
+    @Override
+    protected void processSystem() {
+        float delta = world.delta;
+        Particles p = particles;
+
+        for (int i = 0; p.size > i; ) {
+            p.life[i] -= delta;
+            float x = p.x[i] += p.vx[i] * delta;
+            float y = p.y[i] += p.vy[i] * delta;
+
+            // expired or off screen
+            if (p.life[i] <= 0 || x + Const.WIDTH < 0 || x > Const.WIDTH || y + Const.HEIGHT < 0 || y > Const.HEIGHT) {
+                p.remove(i);
+                continue; // the last particle moved to this slot
+            }
+
+            p.alpha[i] = Math.max(0, p.alpha[i] - p.fade[i] * delta);
+            p.scale[i] = Math.max(0, p.scale[i] + p.growth[i] * delta);
+            i++;
+        }
+    }
+
+    /**
+     * Draws all particles in one pass, the batch must have been begun.
+     */
+    public void draw(SpriteBatch batch) {
+        Particles p = particles;
+
+        for (int i = 0; p.size > i; i++) {
+            AtlasRegion region = getRegion(i);
+            int width = region.getRegionWidth();
+            int height = region.getRegionHeight();
+            float scale = p.scale[i];
+            batch.setColor(p.r[i], p.g[i], p.b[i], p.alpha[i]);
+            batch.draw(region, p.x[i] - width / 2 * scale, p.y[i] - height / 2 * scale, 0, 0, width, height, scale, scale, 0);
+        }
+    }
+
+    /**
+     * Captures all particles into the snapshot.
+     */
+    public void capture(RenderSnapshot snapshot) {
+        Particles p = particles;
+
+        for (int i = 0; p.size > i; i++) {
+            snapshot.addSprite(getRegion(i), p.x[i], p.y[i], p.x[i], p.y[i], p.scale[i], p.scale[i], 0,
+                    p.r[i], p.g[i], p.b[i], p.alpha[i]);
+        }
+    }
+
+    private AtlasRegion getRegion(int index) {
+        Particles p = particles;
+        SpriteRegistry registry = SpacePeng.spriteRegistry;
+
+        Array<AtlasRegion> frames = registry.getFrames(p.regionIds[index]);
+        if (frames != null) {
+            // animation frames spread evenly over the lifetime
+            int frame = (int) ((1 - p.life[index] / p.lifetime[index]) * frames.size);
+            return frames.get(Math.min(frame, frames.size - 1));
+        }
+        return registry.getRegion(p.regionIds[index]);
+    }
+}
@@ -25,6 +25,7 @@ import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import de.fgerbig.spacepeng.components.BasePosition;
+import de.fgerbig.spacepeng.components.Formation;
 import de.fgerbig.spacepeng.components.PathMovement;
 import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.TransitionToNewPathMovement;
@@ -41,24 +42,45 @@ public class PathMovementSystem extends EntityProcessingSystem {
     ComponentMapper<PathMovement> pmv_cm;
     @Wire
     ComponentMapper<TransitionToNewPathMovement> tpmv_cm;
+    @Wire
+    ComponentMapper<Formation> fm_cm;
+
+    // phase advance of all paths in radians per second
+    static final float SPEED = 2;
+
+    // samples per path function table, a period takes about 190 frames at 2 rad/s
+    static final int PATH_TABLE_SAMPLES = 256;
 
     private HashMap<String, PathFunction> pathFunctions;
+    private FormationMovementSystem formationMovementSystem;
+
+    // reused results, see getPos
+    private final Vector2 pathPos = new Vector2();
+    private final Vector2 oldPathXY = new Vector2();
+    private final Vector2 newPathXY = new Vector2();
 
     public PathMovementSystem() {
-        super(Aspect.getAspectForAll(BasePosition.class, Position.class, PathMovement.class));
+        // formation members are moved by the FormationMovementSystem
+        super(Aspect.getAspectForAll(BasePosition.class, Position.class, PathMovement.class).exclude(Formation.class));
     }
 
     protected void initialize() {
+        formationMovementSystem = world.getSystem(FormationMovementSystem.class);
+
         pathFunctions = new HashMap<String, PathFunction>();
-        pathFunctions.put(DefaultAlienMovementPathFunction.id, new DefaultAlienMovementPathFunction());
-        pathFunctions.put(DefaultAlienAttackPathFunction.id, new DefaultAlienAttackPathFunction());
-        pathFunctions.put(AlienBossAttackPathFunction.id, new AlienBossAttackPathFunction());
-        pathFunctions.put(TwoAlienBossesAttackPathFunction.id, new TwoAlienBossesAttackPathFunction());
+        register(DefaultAlienMovementPathFunction.id, new DefaultAlienMovementPathFunction());
+        register(DefaultAlienAttackPathFunction.id, new DefaultAlienAttackPathFunction());
+        register(AlienBossAttackPathFunction.id, new AlienBossAttackPathFunction());
+        register(TwoAlienBossesAttackPathFunction.id, new TwoAlienBossesAttackPathFunction());
+    }
+
+    private void register(String id, PathFunction function) {
+        pathFunctions.put(id, new PathTable(function, PATH_TABLE_SAMPLES));
     }
 
     @Override
     protected void process(Entity e) {
-        Vector2 pathPos;
+        Vector2 offset;
         float delta = world.delta;
 
         BasePosition basePosition = bpos_cm.get(e);
@@ -68,11 +90,11 @@ public class PathMovementSystem extends EntityProcessingSystem {
 
         if (!tpmv_cm.has(e)) {
             // no transition
-            pathPos = getPos(pathMovement);
+            offset = getPos(pathMovement);
         } else {
             // in transition to new path movement function
             TransitionToNewPathMovement transitionToNewPathMovement = tpmv_cm.get(e);
-            pathPos = getPos(pathMovement, transitionToNewPathMovement);
+            offset = getPos(pathMovement, transitionToNewPathMovement);
 
             // advance transition
             transitionToNewPathMovement.factor += delta;
@@ -81,45 +103,65 @@ public class PathMovementSystem extends EntityProcessingSystem {
             if (transitionToNewPathMovement.factor >= 1) {
                 pathMovement.pathFunctionId = transitionToNewPathMovement.pathFunctionId;
                 e.edit().remove(TransitionToNewPathMovement.class);
+
+                // back on the default path, in the same phase as the formation
+                if (DefaultAlienMovementPathFunction.id.equals(pathMovement.pathFunctionId)) {
+                    e.edit().create(Formation.class);
+                }
             }
         }
 
-        position.x = basePosition.x + pathPos.x;
-        position.y = basePosition.y + pathPos.y;
+        position.x = basePosition.x + offset.x;
+        position.y = basePosition.y + offset.y;
 
-        pathMovement.rad += delta * 2;
+        pathMovement.rad += delta * SPEED;
         if (pathMovement.rad >= MathUtils.PI2) {
             pathMovement.rad -= MathUtils.PI2;
         }
     }
 
-    protected Vector2 getPos(PathMovement pathMovement) {
-        PathFunction f1;
-        Vector2 pos;
+    /**
+     * Lets the entity blend over to the given path, taking it out of its formation if necessary.
+     */
+    public void transition(Entity e, String pathFunctionId) {
+        if (fm_cm.has(e)) {
+            PathMovement pathMovement = pmv_cm.get(e);
+            if (pathFunctionId.equals(pathMovement.pathFunctionId)) {
+                return; // moving along this path with the formation already
+            }
 
-        f1 = pathFunctions.get(pathMovement.pathFunctionId);
-        pos = f1.getXY(pathMovement.rad);
+            // continue on a path of its own from the phase of the formation
+            pathMovement.rad = formationMovementSystem.getRad();
+            e.edit().remove(Formation.class);
+        }
+        e.edit().add(new TransitionToNewPathMovement(pathFunctionId));
+    }
 
-        return pos;
+    /**
+     * Returns the path offset, valid until the next call.
+     */
+    protected Vector2 getPos(PathMovement pathMovement) {
+        PathFunction f1 = pathFunctions.get(pathMovement.pathFunctionId);
+        return f1.getXY(pathMovement.rad, pathPos);
     }
 
+    /**
+     * Returns the blended path offset, valid until the next call.
+     */
     protected Vector2 getPos(PathMovement pathMovement, TransitionToNewPathMovement transitionToNewPathMovement) {
         PathFunction f1, f2;
-        Vector2 pos;
 
         f1 = pathFunctions.get(pathMovement.pathFunctionId);
         f2 = pathFunctions.get(transitionToNewPathMovement.pathFunctionId);
 
-        Vector2 oldPathXY = f1.getXY(pathMovement.rad);
-        Vector2 newPathXY = f2.getXY(pathMovement.rad);
+        f1.getXY(pathMovement.rad, oldPathXY);
+        f2.getXY(pathMovement.rad, newPathXY);
 
         // blend values of old and new movement function
         float factor = transitionToNewPathMovement.factor;
         float x = (1 - factor) * oldPathXY.x + factor * newPathXY.x;
         float y = (1 - factor) * oldPathXY.y + factor * newPathXY.y;
 
-        pos = new Vector2(x, y);
-
-        return pos;
+        return pathPos.set(x, y);
     }
 }
@@ -65,8 +65,9 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
 
     private FireState fireState = FireState.ALLOW;
 
-    private boolean left, right;
-    private boolean shoot;
+    // set by the input callbacks, read by the simulation which may run on its own thread
+    private volatile boolean left, right;
+    private volatile boolean shoot;
     private float timeToShoot;
     private float timeToContinue;
 
@@ -74,14 +75,17 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
     private Viewport viewport;
     private Vector3 mouseVector;
 
-    private boolean directInput;
+    private volatile boolean directInput;
+    // pointer x in world coordinates, unprojected by the input callbacks on the render thread
+    private volatile float pointerX;
 
     public PlayerInputSystem(EventManager eventManager, OrthographicCamera camera, Viewport viewport) {
         super(Aspect.getAspectForAll(Position.class, Velocity.class, Player.class));
         this.eventManager = eventManager;
         this.camera = camera;
         this.viewport = viewport;
-        this.mouseVector = new Vector3(Gdx.input.getX(), Gdx.input.getY(), 0);
+        this.mouseVector = new Vector3();
+        setPointer(Gdx.input.getX(), Gdx.input.getY());
     }
 
     @Override
@@ -95,11 +99,8 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
         Position position = pos_cm.get(e);
         Velocity velocity = vlc_cm.get(e);
 
-        mouseVector.set(Gdx.input.getX(), Gdx.input.getY(), 0);
-        camera.unproject(mouseVector, viewport.getScreenX(), viewport.getScreenY(), viewport.getScreenWidth(), viewport.getScreenHeight());
-
         if (directInput) {
-            position.x = mouseVector.x;
+            position.x = pointerX;
         } else {
             if (left) {
                 velocity.vectorX = MathUtils.clamp(velocity.vectorX - (world.getDelta() * HORIZONTAL_THRUSTERS), -HORIZONTAL_MAX_SPEED, HORIZONTAL_MAX_SPEED);
@@ -154,6 +155,12 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
 
     }
 
+    private void setPointer(int screenX, int screenY) {
+        mouseVector.set(screenX, screenY, 0);
+        camera.unproject(mouseVector, viewport.getScreenX(), viewport.getScreenY(), viewport.getScreenWidth(), viewport.getScreenHeight());
+        pointerX = mouseVector.x;
+    }
+
     public void setFireAllowed() {
         this.fireState = FireState.ALLOW;
     }
@@ -230,6 +237,7 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
     @Override
     public boolean touchDown(int x, int y, int pointer, int button) {
         //Gdx.app.log(Const.NAME, "touchDown(x=" + x + ", y=" + y + ", pointer=" + pointer + ", button=" + button + ")");
+        setPointer(x, y);
         directInput = true;
         if (button == Input.Buttons.LEFT) {
             shoot = true;
@@ -249,7 +257,8 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
     @Override
     public boolean touchDragged(int x, int y, int pointer) {
         //Gdx.app.log(Const.NAME, "touchDragged(x=" + x + ", y=" + y + ", pointer=" + pointer + ")");
-        return false;
+        setPointer(x, y);
+        return true;
     }
 
     @Override
@@ -261,7 +270,8 @@ public class PlayerInputSystem extends EntityProcessingSystem implements InputPr
     @Override
     public boolean mouseMoved(int screenX, int screenY) {
         //Gdx.app.log(Const.NAME, "mouseMoved(screenX=" + screenX + ", screenY=" + screenY + ")");
-        return false;
+        setPointer(screenX, screenY);
+        return true;
     }
 
     // controller
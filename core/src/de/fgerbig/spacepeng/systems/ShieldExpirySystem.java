@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.ComponentMapper;
+import com.artemis.Entity;
+import com.artemis.annotations.Wire;
+import de.fgerbig.spacepeng.SpacePeng;
+import de.fgerbig.spacepeng.components.Player;
+import de.fgerbig.spacepeng.components.Sprite;
+import de.fgerbig.spacepeng.components.powerup.Shield;
+
+/**
+ * Takes the shield of the player and restores the sprite without shield.
+ */
+public class ShieldExpirySystem extends ExpiringComponentSystem<Shield> {
+    @Wire
+    ComponentMapper<Sprite> spr_cm;
+
+    public ShieldExpirySystem() {
+        super(Shield.class);
+    }
+
+    @Override
+    protected void expired(Entity e, Shield shield) {
+        super.expired(e, shield);
+        spr_cm.get(e).regionId = SpacePeng.spriteRegistry.getId(Player.SPRITE_NAME);
+    }
+}
@@ -25,18 +25,23 @@ import com.artemis.annotations.Wire;
 import com.artemis.utils.IntBag;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.*;
-import com.badlogic.gdx.graphics.g2d.TextureAtlas.AtlasRegion;
 import com.badlogic.gdx.utils.Array;
+import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.components.AnimationParameters;
 import de.fgerbig.spacepeng.components.Invisible;
 import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.Sprite;
-import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.render.RenderSnapshot;
+import de.fgerbig.spacepeng.render.StaticLayer;
 
-import java.util.*;
+import java.util.Arrays;
 
 public class SpriteRenderSystem extends EntitySystem {
+    // bucket of sprites kept in the static layer
+    private static final int STATIC = -2;
+
     @Wire
     ComponentMapper<Position> pos_cm;
     @Wire
@@ -50,54 +55,75 @@ public class SpriteRenderSystem extends EntitySystem {
     private SpriteBatch batch;
     private TextureAtlas textureAtlas;
     private BitmapFont font;
+    private StaticLayer staticLayer;
+
+    private ParticleSystem particleSystem;
+
+    // animations built so far, per sprite one for each frame duration and play mode in use
+    private Array<CachedAnimation>[] animationCache;
 
-    private HashMap<String, AtlasRegion> regions;
-    private HashMap<String, Array<? extends TextureRegion>> animations;
-    private List<Entity> sortedEntities;
+    // entity ids per sprite layer and texture, drawn in layer order and grouped by texture within a layer
+    private LayerBucket[] buckets;
+    private int textureCount;
+    // last bucket of the effects layer, particles are drawn after it
+    private int effectsBucket;
+    // per entity id: bucket and index in the bucket, -1 if not queued, STATIC if in the static layer
+    private int[] bucketOfId = new int[128];
+    private int[] indexOfId = new int[128];
 
-    public SpriteRenderSystem(OrthographicCamera camera, SpriteBatch batch, TextureAtlas atlas, BitmapFont font) {
+    // per entity id: position at the start of the current simulation tick
+    private float[] previousX = new float[128];
+    private float[] previousY = new float[128];
+    private boolean[] hasPrevious = new boolean[128];
+    // fraction of a tick passed since the last tick, used to interpolate positions
+    private float interpolation = 1;
+
+    // texture of the last drawn sprite and number of texture changes in the current frame
+    private Texture lastTexture;
+    private int textureSwitches;
+
+    /**
+     * @param staticLayer receives the sprites of static layers, it is drawn by the owner before the batch
+     */
+    public SpriteRenderSystem(OrthographicCamera camera, SpriteBatch batch, TextureAtlas atlas, BitmapFont font, StaticLayer staticLayer) {
         super(Aspect.getAspectForAll(Position.class, Sprite.class));
         this.camera = camera;
         this.batch = batch;
         this.textureAtlas = atlas;
         this.font = font;
+        this.staticLayer = staticLayer;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     protected void initialize() {
-        regions = new HashMap<String, AtlasRegion>();
-        animations = new HashMap<String, Array<? extends TextureRegion>>();
-
-        for (AtlasRegion region : textureAtlas.getRegions()) {
-
-            // no texture region with this name
-            if (!regions.containsKey(region.name)) {
-                // add region to list of regions
-                Gdx.app.log(Const.NAME, "added texture atlas region '" + region.name + "'");
-                regions.put(region.name, region);
-            }
-
-            // no animation with this name
-            if (!animations.containsKey(region.name)) {
-                // check length of animation
-                Array<AtlasRegion> animationRegions = textureAtlas.findRegions(region.name);
-                if (animationRegions.size > 1) {
-                    // add regions to list of animations
-                    Gdx.app.log(Const.NAME, "added animation '" + region.name + "' with " + animationRegions.size + " texture atlas regions");
-                    animations.put(region.name, animationRegions);
-                }
-            }
+        particleSystem = world.getSystem(ParticleSystem.class);
+        animationCache = new Array[SpacePeng.spriteRegistry.size()];
 
+        textureCount = SpacePeng.spriteRegistry.getTextureCount();
+        buckets = new LayerBucket[Sprite.Layer.values().length * textureCount];
+        for (int i = 0; buckets.length > i; i++) {
+            buckets[i] = new LayerBucket();
         }
-
-        sortedEntities = new ArrayList<Entity>();
+        effectsBucket = (Sprite.Layer.EFFECTS.ordinal() + 1) * textureCount - 1;
+        Arrays.fill(bucketOfId, -1);
         font.setUseIntegerPositions(false);
     }
 
     @Override
     protected void processEntities(IntBag entities) {
-        for (int i = 0; sortedEntities.size() > i; i++) {
-            process(sortedEntities.get(i));
+        beginFrame();
+        for (int b = 0; buckets.length > b; b++) {
+            LayerBucket bucket = buckets[b];
+            for (int i = 0; bucket.size > i; i++) {
+                process(world.getEntity(bucket.ids[i]));
+            }
+
+            // particles are effects, but drawn on top of the effect sprites
+            if (b == effectsBucket) {
+                particleSystem.draw(batch);
+                lastTexture = null; // unknown, count the next sprite as a switch
+            }
         }
     }
 
@@ -109,41 +135,250 @@ public class SpriteRenderSystem extends EntitySystem {
         Position position = pos_cm.get(e);
         Sprite sprite = spr_cm.get(e);
 
-        TextureRegion spriteRegion = regions.get(sprite.name);
+        float x = position.x;
+        float y = position.y;
+        int id = e.getId();
+        if (hasPrevious[id]) {
+            x = previousX[id] + (x - previousX[id]) * interpolation;
+            y = previousY[id] + (y - previousY[id]) * interpolation;
+        }
+
+        // animations advance once per frame, not per tick
+        TextureRegion spriteRegion = getRegion(e, sprite, Gdx.graphics.getDeltaTime());
         batch.setColor(sprite.r, sprite.g, sprite.b, sprite.a);
+        draw(spriteRegion, x, y, sprite.scaleX, sprite.scaleY, sprite.rotation);
+    }
+
+    private TextureRegion getRegion(Entity e, Sprite sprite, float delta) {
+        TextureRegion spriteRegion = SpacePeng.spriteRegistry.getRegion(sprite.regionId);
 
         // animation
-        if (anim_cm.has(e) && animations.containsKey(sprite.name)) {
+        if (anim_cm.has(e)) {
             AnimationParameters ap = anim_cm.get(e);
-            Animation animation = new Animation(ap.frameDuration, animations.get(sprite.name), ap.playMode);
-            spriteRegion = animation.getKeyFrame(ap.stateTime);
-            ap.stateTime += world.getDelta();
+            if (ap.animation == null) {
+                ap.animation = getAnimation(sprite.regionId, ap.frameDuration, ap.playMode);
+            }
+            if (ap.animation != null) {
+                spriteRegion = ap.animation.getKeyFrame(ap.stateTime);
+                ap.stateTime += delta;
+            }
         }
 
-        float posX = position.x - (spriteRegion.getRegionWidth() / 2 * sprite.scaleX);
-        float posY = position.y - (spriteRegion.getRegionHeight() / 2 * sprite.scaleX);
-        batch.draw(spriteRegion, posX, posY, 0, 0, spriteRegion.getRegionWidth(), spriteRegion.getRegionHeight(), sprite.scaleX, sprite.scaleY, sprite.rotation);
+        return spriteRegion;
     }
 
-    @Override
-    protected void inserted(Entity e) {
-        sortedEntities.add(e);
-
-        Collections.sort(sortedEntities, new Comparator<Entity>() {
-            @Override
-            public int compare(Entity e1, Entity e2) {
-                Sprite s1 = spr_cm.getSafe(e1);
-                Sprite s2 = spr_cm.getSafe(e2);
-                if (s1 != null && s2 != null) {
-                    return s1.layer.compareTo(s2.layer);
+    private void draw(TextureRegion region, float x, float y, float scaleX, float scaleY, float rotation) {
+        Texture texture = region.getTexture();
+        if (texture != lastTexture) {
+            lastTexture = texture;
+            textureSwitches++;
+        }
+
+        float posX = x - (region.getRegionWidth() / 2 * scaleX);
+        float posY = y - (region.getRegionHeight() / 2 * scaleX);
+        batch.draw(region, posX, posY, 0, 0, region.getRegionWidth(), region.getRegionHeight(), scaleX, scaleY, rotation);
+    }
+
+    /**
+     * Captures all visible sprites and particles of the current tick into the snapshot, in drawing order.
+     */
+    public void capture(RenderSnapshot snapshot) {
+        for (int b = 0; buckets.length > b; b++) {
+            LayerBucket bucket = buckets[b];
+            for (int i = 0; bucket.size > i; i++) {
+                int id = bucket.ids[i];
+                Entity e = world.getEntity(id);
+                if (inv_cm.has(e)) {
+                    continue;
                 }
-                return -1;
+
+                Position position = pos_cm.get(e);
+                Sprite sprite = spr_cm.get(e);
+                // captured once per tick, so animations advance by the tick
+                TextureRegion region = getRegion(e, sprite, world.getDelta());
+
+                float x0 = hasPrevious[id] ? previousX[id] : position.x;
+                float y0 = hasPrevious[id] ? previousY[id] : position.y;
+                snapshot.addSprite(region, x0, y0, position.x, position.y, sprite.scaleX, sprite.scaleY, sprite.rotation,
+                        sprite.r, sprite.g, sprite.b, sprite.a);
+            }
+
+            if (b == effectsBucket) {
+                particleSystem.capture(snapshot);
             }
-        });
+        }
+    }
+
+    /**
+     * Draws the sprites of a snapshot, touches no entities.
+     *
+     * @param interpolation fraction of a tick passed since the snapshot was captured
+     */
+    public void draw(RenderSnapshot snapshot, float interpolation) {
+        beginFrame();
+        for (int i = 0; snapshot.size > i; i++) {
+            float x = snapshot.previousX[i] + (snapshot.x[i] - snapshot.previousX[i]) * interpolation;
+            float y = snapshot.previousY[i] + (snapshot.y[i] - snapshot.previousY[i]) * interpolation;
+            batch.setColor(snapshot.r[i], snapshot.g[i], snapshot.b[i], snapshot.a[i]);
+            draw(snapshot.regions[i], x, y, snapshot.scaleX[i], snapshot.scaleY[i], snapshot.rotation[i]);
+        }
+    }
+
+    /**
+     * Remembers the positions of all sprites, to be called before each simulation tick.
+     */
+    public void savePreviousPositions() {
+        for (int b = 0; buckets.length > b; b++) {
+            LayerBucket bucket = buckets[b];
+            for (int i = 0; bucket.size > i; i++) {
+                int id = bucket.ids[i];
+                Position position = pos_cm.get(world.getEntity(id));
+                previousX[id] = position.x;
+                previousY[id] = position.y;
+                hasPrevious[id] = true;
+            }
+        }
+    }
+
+    private void beginFrame() {
+        lastTexture = null;
+        textureSwitches = 0;
+    }
+
+    /**
+     * Returns the number of texture changes between the sprites drawn in the last frame.
+     */
+    public int getTextureSwitches() {
+        return textureSwitches;
+    }
+
+    /**
+     * Sets the fraction of a tick passed since the last simulation tick, 1 draws the current positions.
+     */
+    public void setInterpolation(float interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    /**
+     * Returns the cached animation of the given region, creating it on first use.
+     *
+     * @return the animation or null if the sprite isn't animated
+     */
+    private Animation getAnimation(int regionId, float frameDuration, Animation.PlayMode playMode) {
+        Array<? extends TextureRegion> frames = SpacePeng.spriteRegistry.getFrames(regionId);
+        if (frames == null) {
+            return null;
+        }
+
+        Array<CachedAnimation> cached = animationCache[regionId];
+        if (cached == null) {
+            cached = new Array<CachedAnimation>(false, 2);
+            animationCache[regionId] = cached;
+        }
+
+        for (int i = 0; cached.size > i; i++) {
+            CachedAnimation c = cached.get(i);
+            if (c.frameDuration == frameDuration && c.playMode == playMode) {
+                return c.animation;
+            }
+        }
+
+        CachedAnimation c = new CachedAnimation(frameDuration, playMode, new Animation(frameDuration, frames, playMode));
+        cached.add(c);
+        return c.animation;
+    }
+
+    @Override
+    protected void inserted(Entity e) {
+        int id = e.getId();
+        ensureCapacity(id);
+
+        Sprite sprite = spr_cm.get(e);
+        if (sprite.layer.isStatic) {
+            Position position = pos_cm.get(e);
+            staticLayer.add(id, SpacePeng.spriteRegistry.getRegion(sprite.regionId), position.x, position.y,
+                    sprite.scaleX, sprite.scaleY, sprite.rotation, sprite.r, sprite.g, sprite.b, sprite.a);
+            bucketOfId[id] = STATIC;
+            return;
+        }
+
+        // animation frames are expected on the page of their first region
+        int bucket = sprite.layer.ordinal() * textureCount + SpacePeng.spriteRegistry.getTextureIndex(sprite.regionId);
+        bucketOfId[id] = bucket;
+        indexOfId[id] = buckets[bucket].add(id);
+        hasPrevious[id] = false; // new in this tick, nothing to interpolate from
     }
 
     @Override
     protected void removed(Entity e) {
-        sortedEntities.remove(e);
+        int id = e.getId();
+        if (id >= bucketOfId.length || bucketOfId[id] == -1) {
+            return;
+        }
+        if (bucketOfId[id] == STATIC) {
+            staticLayer.remove(id);
+            bucketOfId[id] = -1;
+            return;
+        }
+
+        // the last id of the bucket takes the place of the removed one
+        int movedId = buckets[bucketOfId[id]].remove(indexOfId[id]);
+        if (movedId != id) {
+            indexOfId[movedId] = indexOfId[id];
+        }
+        bucketOfId[id] = -1;
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < bucketOfId.length) {
+            return;
+        }
+
+        int oldLength = bucketOfId.length;
+        int newLength = Math.max(id + 1, oldLength * 2);
+        bucketOfId = Arrays.copyOf(bucketOfId, newLength);
+        indexOfId = Arrays.copyOf(indexOfId, newLength);
+        previousX = Arrays.copyOf(previousX, newLength);
+        previousY = Arrays.copyOf(previousY, newLength);
+        hasPrevious = Arrays.copyOf(hasPrevious, newLength);
+        Arrays.fill(bucketOfId, oldLength, newLength, -1);
+    }
+
+    private static class CachedAnimation {
+        final float frameDuration;
+        final Animation.PlayMode playMode;
+        final Animation animation;
+
+        CachedAnimation(float frameDuration, Animation.PlayMode playMode, Animation animation) {
+            this.frameDuration = frameDuration;
+            this.playMode = playMode;
+            this.animation = animation;
+        }
+    }
+
+    /**
+     * Unordered entity ids of one sprite layer drawn from one texture.
+     */
+    private static class LayerBucket {
+        int[] ids = new int[64];
+        int size;
+
+        int add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size] = id;
+            return size++;
+        }
+
+        /**
+         * Swap-removes the id at the given index.
+         *
+         * @return the id now stored at the index
+         */
+        int remove(int index) {
+            ids[index] = ids[--size];
+            return ids[index];
+        }
     }
 }
@@ -24,6 +24,7 @@ import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.MathUtils;
+import de.fgerbig.spacepeng.SpacePeng;
 import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.Sprite;
 import de.fgerbig.spacepeng.components.StayOnScreen;
@@ -53,7 +54,7 @@ public class StayOnScreenSystem extends EntityProcessingSystem {
 
         if (spr_cm.has(e)) {
             Sprite sprite = spr_cm.get(e);
-            TextureAtlas.AtlasRegion region = textureAtlas.findRegion(sprite.name);
+            TextureAtlas.AtlasRegion region = SpacePeng.spriteRegistry.getRegion(sprite.regionId);
             sx = region.getRegionWidth();
             sy = region.getRegionHeight();
         }
@@ -22,6 +22,7 @@ import com.artemis.ComponentMapper;
 import com.artemis.Entity;
 import com.artemis.annotations.Wire;
 import com.artemis.systems.EntityProcessingSystem;
+import de.fgerbig.spacepeng.components.FastMover;
 import de.fgerbig.spacepeng.components.Position;
 import de.fgerbig.spacepeng.components.Velocity;
 
@@ -30,6 +31,8 @@ public class VelocityMovementSystem extends EntityProcessingSystem {
     ComponentMapper<Position> pos_cm;
     @Wire
     ComponentMapper<Velocity> vlc_cm;
+    @Wire
+    ComponentMapper<FastMover> fast_cm;
 
     public VelocityMovementSystem() {
         super(Aspect.getAspectForAll(Position.class, Velocity.class));
@@ -44,6 +47,13 @@ public class VelocityMovementSystem extends EntityProcessingSystem {
             return;
         }
 
+        // remember where the step started, for swept collision detection
+        if (fast_cm.has(e)) {
+            FastMover fastMover = fast_cm.get(e);
+            fastMover.previousX = position.x;
+            fastMover.previousY = position.y;
+        }
+
         position.x += velocity.vectorX * world.delta;
         position.y += velocity.vectorY * world.delta;
     }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.utils;
+
+import java.util.Arrays;
+
+/**
+ * A min-heap of int ids keyed by a float deadline.
+ * <p/>
+ * Adding and polling is O(log n), so a tick only pays for the entries that are due.
+ * Ids may be added more than once; callers skip stale entries when polling.
+ */
+public class DeadlineQueue {
+    private float[] deadlines = new float[16];
+    private int[] ids = new int[16];
+    private int size;
+
+    public void add(int id, float deadline) {
+        if (size == ids.length) {
+            deadlines = Arrays.copyOf(deadlines, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+
+        // sift up
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (deadlines[parent] <= deadline) {
+                break;
+            }
+            deadlines[i] = deadlines[parent];
+            ids[i] = ids[parent];
+            i = parent;
+        }
+        deadlines[i] = deadline;
+        ids[i] = id;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the earliest deadline, the queue must not be empty.
+     */
+    public float peekDeadline() {
+        return deadlines[0];
+    }
+
+    /**
+     * Removes the entry with the earliest deadline, the queue must not be empty.
+     *
+     * @return the id of the removed entry
+     */
+    public int poll() {
+        int result = ids[0];
+        size--;
+
+        // sift the last entry down from the root
+        float deadline = deadlines[size];
+        int id = ids[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && deadlines[child + 1] < deadlines[child]) {
+                child++;
+            }
+            if (deadline <= deadlines[child]) {
+                break;
+            }
+            deadlines[i] = deadlines[child];
+            ids[i] = ids[child];
+            i = child;
+        }
+        deadlines[i] = deadline;
+        ids[i] = id;
+
+        return result;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A fixed set of daemon threads running one batch of tasks at a time, the calling thread taking part.
+ * <p/>
+ * Threads are handed their task through a field and woken with {@link LockSupport#unpark(Thread)},
+ * so running a batch allocates nothing on any thread, unlike the queues of an executor.
+ */
+public class WorkerPool {
+    private final Worker[] workers;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+    private volatile Thread caller;
+    private volatile boolean shutdown;
+
+    /**
+     * Starts the given number of threads, so a batch may hold one task more.
+     */
+    public WorkerPool(String name, int threads) {
+        workers = new Worker[threads];
+        for (int i = 0; threads > i; i++) {
+            workers[i] = new Worker(name);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * The number of tasks a batch may hold.
+     */
+    public int getParallelism() {
+        return workers.length + 1;
+    }
+
+    /**
+     * Runs the first count tasks, the first on the calling thread, and returns when all of them are done.
+     * Interrupts don't cut the wait short, as the tasks may still be writing their results;
+     * the interrupt status is restored on return.
+     *
+     * @throws RuntimeException if a task failed
+     */
+    public synchronized void runAll(Runnable[] tasks, int count) {
+        if (shutdown) {
+            throw new IllegalStateException("Worker pool is shut down");
+        }
+        if (count > getParallelism()) {
+            throw new IllegalArgumentException("At most " + getParallelism() + " tasks, got " + count);
+        }
+
+        caller = Thread.currentThread();
+        pending.set(count);
+        for (int i = 1; count > i; i++) {
+            Worker worker = workers[i - 1];
+            worker.task = tasks[i];
+            LockSupport.unpark(worker);
+        }
+
+        execute(tasks[0]);
+
+        boolean interrupted = false;
+        while (pending.get() > 0) {
+            LockSupport.park(this);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable t = error.getAndSet(null);
+        if (t != null) {
+            throw new RuntimeException("Task failed", t);
+        }
+    }
+
+    /**
+     * Lets the threads end. Threads busy with a task finish it first.
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (int i = 0; workers.length > i; i++) {
+            LockSupport.unpark(workers[i]);
+        }
+    }
+
+    private void execute(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            error.compareAndSet(null, t);
+        }
+        if (pending.decrementAndGet() == 0) {
+            LockSupport.unpark(caller);
+        }
+    }
+
+    private class Worker extends Thread {
+        volatile Runnable task;
+
+        Worker(String name) {
+            super(name);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            while (!shutdown) {
+                Runnable t = task;
+                if (t == null) {
+                    LockSupport.park(WorkerPool.this);
+                    continue;
+                }
+                task = null;
+                execute(t);
+            }
+        }
+    }
+}
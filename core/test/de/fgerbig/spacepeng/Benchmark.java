@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng;
+
+/**
+ * Times an operation for the benchmark mains of the test source set, see {@link Benchmarks}.
+ */
+public abstract class Benchmark {
+    private static final long WARMUP_NANOS = 1000000000L;
+    private static final long MEASURE_NANOS = 2000000000L;
+
+    // results of all runs, printed so the JIT can't drop the work
+    private static long sink;
+
+    /**
+     * Runs the operation once, e.g. one frame.
+     *
+     * @return any result of the operation
+     */
+    protected abstract int run();
+
+    /**
+     * Runs the operation for a while to get it compiled, then prints its average duration.
+     *
+     * @return the average duration in microseconds
+     */
+    public double measure(String name) {
+        repeat(WARMUP_NANOS);
+
+        long start = System.nanoTime();
+        long operations = repeat(MEASURE_NANOS);
+        double micros = (System.nanoTime() - start) / 1000.0 / operations;
+
+        System.out.println(String.format("%-50s %12.2f us", name, micros));
+        return micros;
+    }
+
+    private long repeat(long nanos) {
+        long end = System.nanoTime() + nanos;
+        long operations = 0;
+        do {
+            sink += run();
+            operations++;
+        } while (System.nanoTime() < end);
+        return operations;
+    }
+
+    public static long getSink() {
+        return sink;
+    }
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng;
+
+import de.fgerbig.spacepeng.collision.BroadphaseBenchmark;
+import de.fgerbig.spacepeng.systems.AlienBehaviourBenchmark;
+
+/**
+ * Runs all benchmarks, start with "gradlew core:benchmark".
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) {
+        BroadphaseBenchmark.run();
+
+        Headless.start();
+        AlienBehaviourBenchmark.run();
+        Headless.stop();
+
+        System.out.println("(" + Benchmark.getSink() + ")");
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * A headless application for tests and benchmarks, with a GL that does nothing so textures,
+ * and with them the sprites the entity factory looks up, can be created.
+ */
+public class Headless {
+    private static HeadlessApplication application;
+
+    public static synchronized void start() {
+        if (application != null) {
+            return;
+        }
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        });
+        Gdx.gl = Gdx.gl20 = stubGL();
+    }
+
+    public static synchronized void stop() {
+        if (application != null) {
+            application.exit();
+            application = null;
+        }
+    }
+
+    /**
+     * Loads 1x1 sprites with the given names into the sprite registry.
+     */
+    public static void loadSprites(String... names) {
+        Texture texture = new Texture(new Pixmap(1, 1, Pixmap.Format.RGBA8888));
+        TextureAtlas atlas = new TextureAtlas();
+        for (String name : names) {
+            atlas.addRegion(name, texture, 0, 0, 1, 1);
+        }
+        SpacePeng.spriteRegistry.load(atlas);
+    }
+
+    private static GL20 stubGL() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class[]{GL20.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                Class<?> type = method.getReturnType();
+                if (type == int.class) {
+                    // handles must not be 0, errors must be
+                    return method.getName().startsWith("glGen") ? 1 : 0;
+                } else if (type == boolean.class) {
+                    return false;
+                } else if (type == float.class) {
+                    return 0f;
+                }
+                return null;
+            }
+        });
+    }
+}
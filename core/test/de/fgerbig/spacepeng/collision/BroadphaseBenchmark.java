@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.collision;
+
+import de.fgerbig.spacepeng.Benchmark;
+import de.fgerbig.spacepeng.global.CollisionLayers;
+import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.services.LevelLayout;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Times the broadphases finding the collisions of one frame.
+ */
+public class BroadphaseBenchmark {
+    private static final int[] BOX_COUNTS = {100, 1000, 5000};
+
+    // the distinct layouts of DirectorSystem.setupLevel
+    private static final int[] LEVELS = {1, 2, 3, 6, 9, 10};
+    private static final int RECORDED_FRAMES = 1200;
+    private static final float ALIEN_SHOT_CHANCE = 0.005f;
+
+    // entity ids of a recorded level, shots reuse ids like the world does
+    private static final int PLAYER_ID = 64;
+    private static final int PLAYER_SHOT_IDS = 128;
+    private static final int ALIEN_SHOT_IDS = 256;
+    private static final int SHOT_ID_COUNT = 128;
+
+    // same as CollisionSystem
+    private static final float GRID_CELL_SIZE = 64;
+
+    private static final int[] CATEGORIES = {CollisionLayers.PLAYER, CollisionLayers.PLAYER_SHOT, CollisionLayers.ALIEN, CollisionLayers.ALIEN_SHOT, CollisionLayers.COIN};
+    private static final int[] MASKS = {CollisionLayers.PLAYER_MASK, CollisionLayers.PLAYER_SHOT_MASK, CollisionLayers.ALIEN_MASK, CollisionLayers.ALIEN_SHOT_MASK, CollisionLayers.COIN_MASK};
+
+    public static void main(String[] args) {
+        run();
+    }
+
+    public static void run() {
+        System.out.println("Grid vs brute force, boxes of random layers all over the screen");
+        for (int count : BOX_COUNTS) {
+            Boxes[] frames = {randomBoxes(count, new Random(count))};
+            measure("brute force, " + count + " boxes", new BruteForceBroadphase(), frames);
+            measure("grid, " + count + " boxes", new GridBroadphase(Const.WIDTH, Const.HEIGHT, GRID_CELL_SIZE), frames);
+        }
+
+        System.out.println("Sweep and prune vs the others, level layouts with streaming shots");
+        for (int level : LEVELS) {
+            Boxes[] frames = recordLevel(level, new Random(level));
+            measure("brute force, level " + level, new BruteForceBroadphase(), frames);
+            measure("grid, level " + level, new GridBroadphase(Const.WIDTH, Const.HEIGHT, GRID_CELL_SIZE), frames);
+            measure("sweep and prune, level " + level, new SweepAndPruneBroadphase(), frames);
+        }
+    }
+
+    /**
+     * Times one frame, cycling through the given frames.
+     */
+    static void measure(String name, final Broadphase broadphase, final Boxes[] frames) {
+        final CollisionCounter counter = new CollisionCounter();
+        for (Boxes boxes : frames) {
+            counter.boxes = boxes;
+            broadphase.findPairs(boxes, counter);
+        }
+        float collisions = counter.collisions / (float) frames.length;
+
+        new Benchmark() {
+            int frame;
+
+            @Override
+            protected int run() {
+                counter.boxes = frames[frame];
+                counter.collisions = 0;
+                broadphase.findPairs(counter.boxes, counter);
+                frame = (frame + 1) % frames.length;
+                return counter.collisions;
+            }
+        }.measure(name + String.format(" (%.1f collisions)", collisions));
+    }
+
+    /**
+     * Half circles the size of aliens, half rectangles the size of shots, moving up to one shot step.
+     */
+    private static Boxes randomBoxes(int count, Random random) {
+        Boxes boxes = new Boxes();
+        for (int i = 0; count > i; i++) {
+            int layer = random.nextInt(CATEGORIES.length);
+            float x = random.nextFloat() * Const.WIDTH;
+            float y = random.nextFloat() * Const.HEIGHT;
+            float previousY = y - random.nextFloat() * 800 * Const.SIMULATION_STEP;
+            if (random.nextBoolean()) {
+                boxes.addCircle(i, CATEGORIES[layer], MASKS[layer], x, y, x, previousY, 14);
+            } else {
+                boxes.addRectangle(i, CATEGORIES[layer], MASKS[layer], x, y, x, previousY, 5, 22.5f);
+            }
+        }
+        return boxes;
+    }
+
+    /**
+     * Frames of a level being played: the formation sways, the player moves and shoots all the time
+     * and aliens drop shots at random. A hit removes nothing.
+     */
+    private static Boxes[] recordLevel(int level, Random random) {
+        LevelLayout layout = LevelLayout.get(level);
+        List<float[]> playerShots = new ArrayList<float[]>();
+        List<float[]> alienShots = new ArrayList<float[]>();
+        int playerShotCount = 0, alienShotCount = 0;
+
+        Boxes[] frames = new Boxes[RECORDED_FRAMES];
+        for (int frame = 0; RECORDED_FRAMES > frame; frame++) {
+            Boxes boxes = new Boxes();
+            float time = frame * Const.SIMULATION_STEP;
+            float sway = 30 * (float) Math.sin(time);
+
+            int id = 0;
+            for (int i = 0; layout.getAlienCount() > i; i++) {
+                float x = layout.getAlienX(i) + sway;
+                float y = layout.getAlienY(i);
+                boxes.addCircle(id++, CollisionLayers.ALIEN, CollisionLayers.ALIEN_MASK, x, y, x, y, 14);
+                if (ALIEN_SHOT_CHANCE > random.nextFloat()) {
+                    alienShots.add(new float[]{x, y, ALIEN_SHOT_IDS + alienShotCount++ % SHOT_ID_COUNT});
+                }
+            }
+            for (int i = 0; layout.getBossCount() > i; i++) {
+                float x = layout.getBossX(i) + sway;
+                float y = layout.getBossY(i);
+                boxes.addCircle(id++, CollisionLayers.ALIEN, CollisionLayers.ALIEN_MASK, x, y, x, y, 62);
+            }
+
+            float playerX = Const.WIDTH / 2 + Const.WIDTH / 3 * (float) Math.sin(time * 0.7f);
+            float playerY = Const.HEIGHT / 10;
+            boxes.addCircle(PLAYER_ID, CollisionLayers.PLAYER, CollisionLayers.PLAYER_MASK, playerX, playerY, playerX, playerY, 16);
+            if (frame % 15 == 0) {
+                playerShots.add(new float[]{playerX, playerY, PLAYER_SHOT_IDS + playerShotCount++ % SHOT_ID_COUNT});
+            }
+
+            addShots(boxes, playerShots, 800, CollisionLayers.PLAYER_SHOT, CollisionLayers.PLAYER_SHOT_MASK, 5, 22.5f);
+            addShots(boxes, alienShots, -400, CollisionLayers.ALIEN_SHOT, CollisionLayers.ALIEN_SHOT_MASK, 1, 5);
+            frames[frame] = boxes;
+        }
+        return frames;
+    }
+
+    /**
+     * Moves the shots one step and adds those still on the screen.
+     */
+    private static void addShots(Boxes boxes, List<float[]> shots, float speed, int category, int mask, float halfWidth, float halfHeight) {
+        for (Iterator<float[]> iterator = shots.iterator(); iterator.hasNext(); ) {
+            float[] shot = iterator.next();
+            float previousY = shot[1];
+            shot[1] += speed * Const.SIMULATION_STEP;
+            if (shot[1] < 0 || shot[1] > Const.HEIGHT) {
+                iterator.remove();
+                continue;
+            }
+            boxes.addRectangle((int) shot[2], category, mask, shot[0], shot[1], shot[0], previousY, halfWidth, halfHeight);
+        }
+    }
+
+    /**
+     * Runs the narrowphase on the candidate pairs, as the collision system does.
+     */
+    static class CollisionCounter implements Broadphase.PairHandler {
+        Boxes boxes;
+        int collisions;
+
+        @Override
+        public void handlePair(int a, int b) {
+            if (Narrowphase.collides(boxes, a, b)) {
+                collisions++;
+            }
+        }
+    }
+}
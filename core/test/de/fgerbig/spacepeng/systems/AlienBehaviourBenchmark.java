@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.Entity;
+import com.artemis.World;
+import com.artemis.managers.GroupManager;
+import com.artemis.managers.TagManager;
+import com.badlogic.gdx.math.MathUtils;
+import de.fgerbig.spacepeng.Benchmark;
+import de.fgerbig.spacepeng.Headless;
+import de.fgerbig.spacepeng.SpacePeng;
+import de.fgerbig.spacepeng.components.Alien;
+import de.fgerbig.spacepeng.components.Player;
+import de.fgerbig.spacepeng.global.Const;
+import de.fgerbig.spacepeng.services.Archetypes;
+import de.fgerbig.spacepeng.services.EntityFactory;
+import de.fgerbig.spacepeng.services.LevelLayout;
+
+/**
+ * Times the alien behaviour of the 40 alien formation of level 2, once with the state shared by
+ * all aliens computed once per tick and once with it computed again for every alien.
+ */
+public class AlienBehaviourBenchmark {
+    private static final int LEVEL = 2;
+
+    public static void main(String[] args) {
+        Headless.start();
+        run();
+        Headless.stop();
+    }
+
+    public static void run() {
+        Headless.loadSprites(Alien.SPRITE_NAME, Alien.SPRITE_NAME_BOSS, Player.SPRITE_NAME, "alienShot", "playerShot");
+        SpacePeng.soundManager.setEnabled(false);
+
+        System.out.println("Alien behaviour, attacking formation of level " + LEVEL);
+        measure("state per alien", new PerAlienStateSystem());
+        measure("state per tick", new AlienBehaviourSystem());
+    }
+
+    private static void measure(String name, AlienBehaviourSystem behaviour) {
+        final World world = createWorld(behaviour);
+        int aliens = LevelLayout.get(LEVEL).getAlienCount();
+
+        double micros = new Benchmark() {
+            @Override
+            protected int run() {
+                world.process();
+                return 0;
+            }
+        }.measure(name + ", tick");
+
+        System.out.println(String.format("%-50s %12.3f us", name + ", per alien", micros / aliens));
+        world.dispose();
+    }
+
+    /**
+     * Only the systems the alien behaviour works with, shots leave the screen and are removed.
+     */
+    private static World createWorld(AlienBehaviourSystem behaviour) {
+        World world = new World();
+
+        world.setManager(new GroupManager());
+        world.setManager(new TagManager());
+        world.setManager(new Archetypes());
+
+        world.setSystem(new IsAttackingExpirySystem());
+        world.setSystem(new AttackGroupSystem(), true);
+        world.setSystem(behaviour);
+        world.setSystem(new VelocityMovementSystem());
+        world.setSystem(new FormationMovementSystem());
+        world.setSystem(new PathMovementSystem());
+        world.setSystem(new OffScreenRemoveSystem());
+
+        world.initialize();
+        world.setDelta(Const.SIMULATION_STEP);
+
+        EntityFactory.createPlayer(world);
+        LevelLayout layout = LevelLayout.get(LEVEL);
+        for (int i = 0; layout.getAlienCount() > i; i++) {
+            EntityFactory.createAlien(world, layout.getAlienX(i), layout.getAlienY(i), layout.getAlienGroup(i));
+        }
+
+        behaviour.setLevelParameters(LEVEL, layout.getAlienCount());
+        behaviour.setAttackingAllowed(null);
+
+        // both variants see the same attacks and shots
+        MathUtils.random.setSeed(LEVEL);
+        return world;
+    }
+
+    /**
+     * Computes the state shared by all aliens again for every alien, like the system did before
+     * that moved into begin().
+     */
+    private static class PerAlienStateSystem extends AlienBehaviourSystem {
+
+        @Override
+        protected void begin() {
+        }
+
+        @Override
+        protected void process(Entity e) {
+            super.begin();
+            super.process(e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import de.fgerbig.spacepeng.components.FastMover;
+import de.fgerbig.spacepeng.components.Position;
+import de.fgerbig.spacepeng.components.collision.CircleBounds;
+import de.fgerbig.spacepeng.components.collision.CollisionLayer;
+import de.fgerbig.spacepeng.components.collision.RectangleBounds;
+import de.fgerbig.spacepeng.events.EventManagerImpl;
+import de.fgerbig.spacepeng.global.CollisionLayers;
+import de.fgerbig.spacepeng.global.Const;
+import org.junit.AfterClass;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that a collision frame doesn't allocate once the buffers have grown to the level's size,
+ * neither on the calling thread nor on the detection threads.
+ */
+public class CollisionSystemAllocationTest {
+    private static final float DELTA = 1 / 60f;
+    // measured together, so the few bytes the measurement itself may allocate stay below one per frame
+    private static final int FRAMES = 1000;
+    private static final int WARMUP_FRAMES = 100;
+
+    private static HeadlessApplication application;
+    private static com.sun.management.ThreadMXBean threads;
+
+    private World world;
+    private CollisionSystem collisionSystem;
+
+    @BeforeClass
+    public static void checkAllocationCounting() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        // counting allocations needs the HotSpot extension of the thread bean
+        Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) bean;
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+    }
+
+    @BeforeClass
+    public static void startApplication() {
+        // the collision system asks the application for its type
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        });
+    }
+
+    @AfterClass
+    public static void stopApplication() {
+        CollisionSystem.shutdownWorkers();
+        if (application != null) {
+            application.exit();
+        }
+    }
+
+    @Before
+    public void createWorld() {
+        world = new World();
+        collisionSystem = world.setSystem(new CollisionSystem(new EventManagerImpl()));
+        world.initialize();
+
+        // a formation of 10 x 4 aliens, like level 2
+        for (int column = 0; 10 > column; column++) {
+            for (int row = 0; 4 > row; row++) {
+                addCircle(130 + column * 60, 390 - row * 60, 14, CollisionLayers.ALIEN, CollisionLayers.ALIEN_MASK);
+            }
+        }
+
+        addCircle(Const.WIDTH / 2, Const.HEIGHT / 10, 16, CollisionLayers.PLAYER, CollisionLayers.PLAYER_MASK);
+
+        // player shots flying up between the columns of aliens, close to them but never hitting
+        for (int column = 0; 9 > column; column++) {
+            for (int row = 0; 6 > row; row++) {
+                addShot(160 + column * 60, 130 + row * 60);
+            }
+        }
+
+        world.setDelta(DELTA);
+    }
+
+    @Test
+    public void serialFrameDoesNotAllocate() {
+        assertFramesDoNotAllocate(false);
+    }
+
+    @Test
+    public void parallelFrameDoesNotAllocate() {
+        assertFramesDoNotAllocate(true);
+    }
+
+    private void assertFramesDoNotAllocate(boolean parallel) {
+        collisionSystem.setParallelDetection(parallel);
+        collisionSystem.setParallelThreshold(0);
+
+        for (CollisionSystem.BroadphaseMode mode : CollisionSystem.BroadphaseMode.values()) {
+            collisionSystem.setBroadphaseMode(mode);
+
+            // the first frames grow the buffers and start the detection threads
+            for (int i = 0; WARMUP_FRAMES > i; i++) {
+                world.process();
+            }
+
+            long[] threadIds = detectionThreadIds();
+            long[] before = threads.getThreadAllocatedBytes(threadIds);
+            for (int i = 0; FRAMES > i; i++) {
+                world.process();
+            }
+            long[] after = threads.getThreadAllocatedBytes(threadIds);
+
+            long allocated = 0;
+            for (int i = 0; threadIds.length > i; i++) {
+                allocated += after[i] - before[i];
+            }
+
+            assertTrue(mode + (parallel ? " in parallel" : "") + " allocated " + allocated + " bytes in " + FRAMES + " frames", FRAMES > allocated);
+        }
+    }
+
+    /**
+     * The calling thread and the worker threads of the collision system.
+     */
+    private static long[] detectionThreadIds() {
+        List<Long> ids = new ArrayList<Long>();
+        ids.add(Thread.currentThread().getId());
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if ("collision".equals(thread.getName())) {
+                ids.add(thread.getId());
+            }
+        }
+
+        long[] result = new long[ids.size()];
+        for (int i = 0; result.length > i; i++) {
+            result[i] = ids.get(i);
+        }
+        return result;
+    }
+
+    private void addCircle(float x, float y, float radius, int category, int mask) {
+        EntityEdit edit = world.createEntity().edit();
+
+        Position position = edit.create(Position.class);
+        position.x = x;
+        position.y = y;
+
+        edit.create(CircleBounds.class).radius = radius;
+
+        CollisionLayer layer = edit.create(CollisionLayer.class);
+        layer.category = category;
+        layer.mask = mask;
+    }
+
+    private void addShot(float x, float y) {
+        EntityEdit edit = world.createEntity().edit();
+
+        Position position = edit.create(Position.class);
+        position.x = x;
+        position.y = y;
+
+        // one step of a shot at full speed
+        FastMover fastMover = edit.create(FastMover.class);
+        fastMover.previousX = x;
+        fastMover.previousY = y - 800 * DELTA;
+
+        RectangleBounds bounds = edit.create(RectangleBounds.class);
+        bounds.width = 10;
+        bounds.height = 45;
+
+        CollisionLayer layer = edit.create(CollisionLayer.class);
+        layer.category = CollisionLayers.PLAYER_SHOT;
+        layer.mask = CollisionLayers.PLAYER_SHOT_MASK;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2015 F. Gerbig (fgerbig@users.sourceforge.net)
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation; either version 3 of
+ * the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.fgerbig.spacepeng.systems;
+
+import com.artemis.Entity;
+import com.artemis.EntityEdit;
+import com.artemis.World;
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import de.fgerbig.spacepeng.components.FastMover;
+import de.fgerbig.spacepeng.components.Position;
+import de.fgerbig.spacepeng.components.collision.CircleBounds;
+import de.fgerbig.spacepeng.components.collision.CollisionLayer;
+import de.fgerbig.spacepeng.components.collision.RectangleBounds;
+import de.fgerbig.spacepeng.events.EventManagerImpl;
+import de.fgerbig.spacepeng.global.CollisionLayers;
+import de.fgerbig.spacepeng.global.Const;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that parallel detection resolves the same collisions in the same order as serial detection.
+ */
+public class CollisionSystemDeterminismTest {
+    private static final float DELTA = 1 / 60f;
+    private static final int ENTITIES = 1500;
+    private static final long SEED = 42;
+
+    private static final int[] CATEGORIES = {
+            CollisionLayers.PLAYER, CollisionLayers.PLAYER_SHOT, CollisionLayers.ALIEN, CollisionLayers.ALIEN_SHOT, CollisionLayers.COIN
+    };
+    private static final int[] MASKS = {
+            CollisionLayers.PLAYER_MASK, CollisionLayers.PLAYER_SHOT_MASK, CollisionLayers.ALIEN_MASK, CollisionLayers.ALIEN_SHOT_MASK, CollisionLayers.COIN_MASK
+    };
+
+    private static HeadlessApplication application;
+
+    @BeforeClass
+    public static void startApplication() {
+        // the collision system asks the application for its type
+        application = new HeadlessApplication(new ApplicationAdapter() {
+        });
+    }
+
+    @AfterClass
+    public static void stopApplication() {
+        CollisionSystem.shutdownWorkers();
+        if (application != null) {
+            application.exit();
+        }
+    }
+
+    @Test
+    public void gridResolvesInSameOrder() {
+        assertSameOrder(CollisionSystem.BroadphaseMode.GRID);
+    }
+
+    @Test
+    public void bruteForceResolvesInSameOrder() {
+        assertSameOrder(CollisionSystem.BroadphaseMode.BRUTE_FORCE);
+    }
+
+    private static void assertSameOrder(CollisionSystem.BroadphaseMode mode) {
+        List<String> serial = resolve(mode, false);
+        List<String> parallel = resolve(mode, true);
+
+        assertFalse("scene without collisions", serial.isEmpty());
+        assertEquals(serial, parallel);
+    }
+
+    /**
+     * Runs one frame of the scene and returns the collisions in the order they were resolved.
+     */
+    private static List<String> resolve(CollisionSystem.BroadphaseMode mode, boolean parallel) {
+        World world = new World();
+        RecordingCollisionSystem collisionSystem = world.setSystem(new RecordingCollisionSystem());
+        world.initialize();
+
+        collisionSystem.setBroadphaseMode(mode);
+        collisionSystem.setParallelDetection(parallel);
+        collisionSystem.setParallelThreshold(0);
+
+        // the same entities with the same ids in both runs
+        Random random = new Random(SEED);
+        for (int i = 0; ENTITIES > i; i++) {
+            addEntity(world, random);
+        }
+
+        world.setDelta(DELTA);
+        world.process();
+
+        // resolved by entity ids
+        List<int[]> pairs = collisionSystem.pairs;
+        for (int i = 1; pairs.size() > i; i++) {
+            int[] previous = pairs.get(i - 1);
+            int[] pair = pairs.get(i);
+            assertTrue(previous[0] < pair[0] || (previous[0] == pair[0] && previous[1] <= pair[1]));
+        }
+
+        List<String> result = new ArrayList<String>(pairs.size());
+        for (int i = 0; pairs.size() > i; i++) {
+            result.add(pairs.get(i)[0] + "/" + pairs.get(i)[1]);
+        }
+        return result;
+    }
+
+    private static void addEntity(World world, Random random) {
+        EntityEdit edit = world.createEntity().edit();
+
+        Position position = edit.create(Position.class);
+        position.x = random.nextFloat() * Const.WIDTH;
+        position.y = random.nextFloat() * Const.HEIGHT;
+
+        if (random.nextBoolean()) {
+            edit.create(CircleBounds.class).radius = 4 + random.nextFloat() * 12;
+        } else {
+            RectangleBounds bounds = edit.create(RectangleBounds.class);
+            bounds.width = 4 + random.nextFloat() * 12;
+            bounds.height = 4 + random.nextFloat() * 40;
+        }
+
+        if (random.nextInt(4) == 0) {
+            FastMover fastMover = edit.create(FastMover.class);
+            fastMover.previousX = position.x;
+            fastMover.previousY = position.y - 800 * DELTA;
+        }
+
+        int layer = random.nextInt(CATEGORIES.length);
+        CollisionLayer collisionLayer = edit.create(CollisionLayer.class);
+        collisionLayer.category = CATEGORIES[layer];
+        collisionLayer.mask = MASKS[layer];
+    }
+
+    /**
+     * Keeps the rules of the game, but records the colliding entities instead of handling them.
+     */
+    private static class RecordingCollisionSystem extends CollisionSystem {
+        final List<int[]> pairs = new ArrayList<int[]>();
+
+        RecordingCollisionSystem() {
+            super(new EventManagerImpl());
+        }
+
+        @Override
+        protected void register(int categoryA, int categoryB, CollisionHandler handler) {
+            super.register(categoryA, categoryB, new CollisionHandler() {
+                @Override
+                public void handleCollision(Entity a, Entity b) {
+                    pairs.add(new int[]{a.getId(), b.getId()});
+                }
+            });
+        }
+    }
+}